@@ -14,4 +14,6 @@ public class AnswerDTO {
     private Long questionId;
     private String answerText;
     private List<Long> selectedOptionIds;
+    // Answer to a numeric question (RATING, NPS)
+    private Integer numericValue;
 } 
\ No newline at end of file
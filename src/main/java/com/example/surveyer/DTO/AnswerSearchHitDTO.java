@@ -0,0 +1,16 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerSearchHitDTO {
+    private Long answerId;
+    private Long questionId;
+    private Long responseId;
+    private Float rank;
+    private String headline; // HTML-escaped answer excerpt, matches wrapped in <mark></mark>
+}
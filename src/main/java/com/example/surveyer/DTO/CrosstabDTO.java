@@ -0,0 +1,19 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrosstabDTO {
+    private Long surveyId;
+    private Long rowQuestionId;
+    private Long columnQuestionId;
+    private Long respondents; // responses matching the filter
+    private List<OptionResultDTO> columns;
+    private List<CrosstabRowDTO> rows;
+}
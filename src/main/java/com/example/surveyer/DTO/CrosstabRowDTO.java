@@ -0,0 +1,17 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrosstabRowDTO {
+    private Long optionId;
+    private String optionText;
+    private Long count;
+    private List<Long> cells; // one per column, in column order
+}
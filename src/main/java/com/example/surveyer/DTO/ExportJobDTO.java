@@ -0,0 +1,22 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJobDTO {
+    private String jobId;
+    private Long surveyId;
+    private String format; // csv or arrow
+    private String status; // QUEUED, RUNNING, COMPLETED or FAILED
+    private Long responseCount; // Responses the survey had when the export was requested
+    private Long sizeBytes; // Size of the gzip-compressed artifact once completed
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private String error;
+}
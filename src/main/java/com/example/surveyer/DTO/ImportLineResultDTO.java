@@ -0,0 +1,15 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportLineResultDTO {
+    private long line;
+    private String status; // CREATED, REJECTED or INVALID
+    private Long responseId;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveResultsEventDTO {
+    private Long surveyId;
+    private Long totalResponses;
+    // Selection counts by option id: every option in a snapshot, only the changed ones in a delta
+    private Map<Long, Long> optionCounts;
+}
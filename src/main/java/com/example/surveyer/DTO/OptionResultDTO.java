@@ -0,0 +1,15 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptionResultDTO {
+    private Long optionId;
+    private Long questionId;
+    private String optionText;
+    private Long count;
+}
@@ -15,5 +15,8 @@ public class QuestionDTO {
     private String questionText;
     private QuestionType type;
     private Integer questionOrder;
+    // Answer range of numeric questions: RATING defaults to 1-5, NPS is always 0-10
+    private Integer minValue;
+    private Integer maxValue;
     private List<QuestionOptionDTO> options;
 } 
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.surveyer.DTO;
+
+import com.example.surveyer.Enum.QuestionType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionResultDTO {
+    private Long questionId;
+    private String questionText;
+    private QuestionType type;
+    private List<OptionResultDTO> options;
+    // Numeric questions only
+    private RatingSummaryDTO rating;
+}
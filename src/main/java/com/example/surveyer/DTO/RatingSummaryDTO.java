@@ -0,0 +1,23 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummaryDTO {
+    private Long answerCount;
+    private Double mean;
+    private Integer median;
+    private Integer p90;
+    // NPS questions only
+    private Double npsScore;
+    private Integer minValue;
+    private Integer maxValue;
+    // Answers per value, from minValue to maxValue
+    private List<Long> counts;
+}
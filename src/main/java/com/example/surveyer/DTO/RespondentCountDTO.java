@@ -0,0 +1,18 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RespondentCountDTO {
+    private Long count;
+    private Boolean approximate;
+    // 0 for exact counts
+    private Double relativeStandardError;
+    // Two standard errors around an approximate count, which holds about 95% of the time
+    private Long lowerBound;
+    private Long upperBound;
+}
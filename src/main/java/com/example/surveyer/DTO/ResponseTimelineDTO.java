@@ -0,0 +1,21 @@
+package com.example.surveyer.DTO;
+
+import com.example.surveyer.Enum.TimeGranularity;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseTimelineDTO {
+    private Long surveyId;
+    private TimeGranularity granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Long total;
+    private List<TimelineBucketDTO> buckets;
+}
@@ -0,0 +1,15 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionReceiptDTO {
+    private String receiptId;
+    private String status; // QUEUED, COMMITTED or REJECTED
+    private Long responseId;
+    private String error;
+}
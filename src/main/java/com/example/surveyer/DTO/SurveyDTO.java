@@ -17,5 +17,6 @@ public class SurveyDTO {
     private Boolean isActive;
     private LocalDateTime createdAt;
     private String createdByUsername;
+    private Long version;
     private List<QuestionDTO> questions;
 } 
\ No newline at end of file
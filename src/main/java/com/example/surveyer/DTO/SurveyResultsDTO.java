@@ -0,0 +1,16 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyResultsDTO {
+    private Long surveyId;
+    private Long totalResponses;
+    private List<QuestionResultDTO> questions;
+}
@@ -0,0 +1,20 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveySummaryDTO {
+    private Long id;
+    private String title;
+    private String description;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private String createdByUsername;
+    private Long version;
+}
@@ -0,0 +1,14 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TermCountDTO {
+    private String term;
+    private Long count; // answers mentioning the term, overestimated by at most error
+    private Long error;
+}
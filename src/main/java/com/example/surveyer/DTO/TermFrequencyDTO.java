@@ -0,0 +1,17 @@
+package com.example.surveyer.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TermFrequencyDTO {
+    private Long questionId;
+    private Long answerCount;
+    private List<TermCountDTO> words;
+    private List<TermCountDTO> phrases;
+}
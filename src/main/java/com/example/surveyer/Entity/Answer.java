@@ -12,13 +12,18 @@ import java.util.List;
 
 
 @Entity
-@Table(name = "answers")
+@Table(name = "answers", indexes = {
+        @Index(name = "idx_answers_question", columnList = "question_id"),
+        @Index(name = "idx_answers_survey_response", columnList = "survey_response_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Answer {
+    // Pooled sequence ids let Hibernate batch the inserts of a submission
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "answers_seq")
+    @SequenceGenerator(name = "answers_seq", sequenceName = "answers_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -29,10 +34,15 @@ public class Answer {
     @JoinColumn(name = "question_id", nullable = false)
     private Question question;
 
+    // Searchable through the generated answer_tsv column (see PostgresMigrations)
     @Column(name = "answer_text", columnDefinition = "TEXT")
     private String answerText;
 
-    // For multiple choice - comma separated option IDs
-    @Column(name = "selected_options")
-    private String selectedOptions;
+    // For numeric questions (RATING, NPS)
+    @Column(name = "numeric_value")
+    private Integer numericValue;
+
+    // For choice questions - one row per selected option
+    @OneToMany(mappedBy = "answer", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<AnswerSelectedOption> selectedOptions = new ArrayList<>();
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.surveyer.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+// One option picked in a choice answer; the option_id index serves per-option counts
+@Entity
+@Table(name = "answer_selected_options", indexes = @Index(name = "idx_answer_selected_options_option", columnList = "option_id, answer_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerSelectedOption {
+    @EmbeddedId
+    private AnswerSelectedOptionId id = new AnswerSelectedOptionId();
+
+    @MapsId("answerId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "answer_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Answer answer;
+
+    @MapsId("optionId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "option_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private QuestionOption option;
+
+    public AnswerSelectedOption(Answer answer, QuestionOption option) {
+        this.id = new AnswerSelectedOptionId(null, option.getId());
+        this.answer = answer;
+        this.option = option;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.surveyer.Entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerSelectedOptionId implements Serializable {
+    @Column(name = "answer_id")
+    private Long answerId;
+
+    @Column(name = "option_id")
+    private Long optionId;
+}
@@ -0,0 +1,27 @@
+package com.example.surveyer.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// How often an option was selected, kept in step with submissions by SurveyResultsService
+@Entity
+@Table(name = "option_tallies", indexes = @Index(name = "idx_option_tallies_survey", columnList = "survey_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptionTally {
+    @Id
+    @Column(name = "option_id")
+    private Long optionId;
+
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+
+    @Column(name = "survey_id", nullable = false)
+    private Long surveyId;
+
+    @Column(name = "selection_count", nullable = false)
+    private Long count = 0L;
+}
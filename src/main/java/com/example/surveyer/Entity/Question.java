@@ -12,7 +12,7 @@ import java.util.List;
 
 
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = @Index(name = "idx_questions_survey_order", columnList = "survey_id, question_order"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +34,13 @@ public class Question {
     @Column(name = "question_order")
     private Integer questionOrder;
 
+    // Inclusive answer range of numeric questions (RATING, NPS), null for the others
+    @Column(name = "min_value")
+    private Integer minValue;
+
+    @Column(name = "max_value")
+    private Integer maxValue;
+
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL)
     private List<QuestionOption> options = new ArrayList<>();
 }
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 
 
 @Entity
-@Table(name = "question_options")
+@Table(name = "question_options", indexes = @Index(name = "idx_question_options_question", columnList = "question_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
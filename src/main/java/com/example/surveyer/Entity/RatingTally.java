@@ -0,0 +1,26 @@
+package com.example.surveyer.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// How often a value was given to a numeric question, kept in step with submissions by RatingTallyService
+@Entity
+@Table(name = "rating_tallies")
+@IdClass(RatingTallyId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingTally {
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Id
+    @Column(name = "rating_value")
+    private Integer ratingValue;
+
+    @Column(name = "answer_count", nullable = false)
+    private Long count = 0L;
+}
@@ -0,0 +1,15 @@
+package com.example.surveyer.Entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingTallyId implements Serializable {
+    private Long questionId;
+    private Integer ratingValue;
+}
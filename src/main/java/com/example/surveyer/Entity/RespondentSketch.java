@@ -0,0 +1,34 @@
+package com.example.surveyer.Entity;
+
+import com.example.surveyer.Enum.SketchScope;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// HyperLogLog sketch of the distinct respondent emails of a survey or of all surveys of a creator, maintained by RespondentSketches
+@Entity
+@Table(name = "respondent_sketches")
+@IdClass(RespondentSketchId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RespondentSketch {
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", length = 8)
+    private SketchScope scope;
+
+    // Survey id or creator (user) id, depending on the scope
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    // HyperLogLog.toBytes()
+    @Column(name = "registers", nullable = false, length = 65537)
+    private byte[] registers;
+
+    // Responses folded into the sketch, compared with the stored responses to detect lost updates
+    @Column(name = "response_count", nullable = false)
+    private Long responseCount = 0L;
+}
@@ -0,0 +1,16 @@
+package com.example.surveyer.Entity;
+
+import com.example.surveyer.Enum.SketchScope;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RespondentSketchId implements Serializable {
+    private SketchScope scope;
+    private Long ownerId;
+}
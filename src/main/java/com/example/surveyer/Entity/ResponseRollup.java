@@ -0,0 +1,35 @@
+package com.example.surveyer.Entity;
+
+import com.example.surveyer.Enum.TimeGranularity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Responses submitted to a survey per minute, hour and day, kept in step with submissions by ResponseTimelineService
+@Entity
+@Table(name = "response_rollups", indexes = @Index(name = "idx_response_rollups_survey_bucket", columnList = "survey_id, granularity, bucket_start"))
+@IdClass(ResponseRollupId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseRollup {
+    @Id
+    @Column(name = "survey_id")
+    private Long surveyId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 8)
+    private TimeGranularity granularity;
+
+    // Start of the bucket, in server local time
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "response_count", nullable = false)
+    private Long count = 0L;
+}
@@ -0,0 +1,18 @@
+package com.example.surveyer.Entity;
+
+import com.example.surveyer.Enum.TimeGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseRollupId implements Serializable {
+    private Long surveyId;
+    private TimeGranularity granularity;
+    private LocalDateTime bucketStart;
+}
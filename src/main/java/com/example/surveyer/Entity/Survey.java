@@ -10,7 +10,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "surveys")
+@Table(name = "surveys", indexes = {
+        @Index(name = "idx_surveys_active_created", columnList = "is_active, created_at DESC, id DESC"),
+        @Index(name = "idx_surveys_creator_created", columnList = "created_by, created_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,6 +38,10 @@ public class Survey {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Bumped on every change to the survey or its questions; only written by SurveyRepository.incrementContentVersion
+    @Column(name = "content_version", nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long contentVersion = 0L;
+
     @OneToMany(mappedBy = "survey", cascade = CascadeType.ALL)
     private List<Question> questions = new ArrayList<>();
 
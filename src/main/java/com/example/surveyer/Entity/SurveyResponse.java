@@ -12,13 +12,17 @@ import java.util.List;
 
 
 @Entity
-@Table(name = "survey_responses")
+@Table(name = "survey_responses",
+        indexes = @Index(name = "idx_survey_responses_survey_submitted", columnList = "survey_id, submitted_at"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_survey_responses_survey_email", columnNames = {"survey_id", "respondent_email"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SurveyResponse {
+    // Pooled sequence ids let Hibernate batch the inserts of a submission
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "survey_responses_seq")
+    @SequenceGenerator(name = "survey_responses_seq", sequenceName = "survey_responses_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -36,6 +40,9 @@ public class SurveyResponse {
 
     @PrePersist
     protected void onCreate() {
-        submittedAt = LocalDateTime.now();
+        // Imported responses keep the time they were collected
+        if (submittedAt == null) {
+            submittedAt = LocalDateTime.now();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.surveyer.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pre-aggregated per-survey counters, kept in step with responses and questions by SurveyStatsService
+@Entity
+@Table(name = "survey_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyStats {
+    @Id
+    @Column(name = "survey_id")
+    private Long surveyId;
+
+    @Column(name = "response_count", nullable = false)
+    private Long responseCount = 0L;
+
+    @Column(name = "question_count", nullable = false)
+    private Long questionCount = 0L;
+}
@@ -1,5 +1,10 @@
 package com.example.surveyer.Enum;
 
 public enum QuestionType {
-    TEXT, SINGLE_CHOICE, MULTIPLE_CHOICE
+    TEXT, SINGLE_CHOICE, MULTIPLE_CHOICE, RATING, NPS;
+
+    // Answered with a whole number within the question's range rather than text or options
+    public boolean isNumeric() {
+        return this == RATING || this == NPS;
+    }
 }
\ No newline at end of file
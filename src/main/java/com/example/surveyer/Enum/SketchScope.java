@@ -0,0 +1,6 @@
+package com.example.surveyer.Enum;
+
+// What the owner id of a respondent sketch refers to
+public enum SketchScope {
+    SURVEY, CREATOR
+}
@@ -0,0 +1,34 @@
+package com.example.surveyer.Enum;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum TimeGranularity {
+    MINUTE(ChronoUnit.MINUTES, 60), HOUR(ChronoUnit.HOURS, 48), DAY(ChronoUnit.DAYS, 30);
+
+    private final ChronoUnit unit;
+
+    // Buckets shown when no range is given
+    private final int defaultBuckets;
+
+    TimeGranularity(ChronoUnit unit, int defaultBuckets) {
+        this.unit = unit;
+        this.defaultBuckets = defaultBuckets;
+    }
+
+    public LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public LocalDateTime plus(LocalDateTime bucket, long buckets) {
+        return bucket.plus(buckets, unit);
+    }
+
+    public long bucketsBetween(LocalDateTime from, LocalDateTime to) {
+        return unit.between(from, to);
+    }
+
+    public int getDefaultBuckets() {
+        return defaultBuckets;
+    }
+}
@@ -3,11 +3,15 @@ package com.example.surveyer.Repository;
 import com.example.surveyer.Entity.Answer;
 import com.example.surveyer.Entity.SurveyResponse;
 import com.example.surveyer.Entity.Question;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface AnswerRepository extends JpaRepository<Answer, Long> {
     List<Answer> findBySurveyResponse(SurveyResponse surveyResponse);
@@ -18,4 +22,21 @@ public interface AnswerRepository extends JpaRepository<Answer, Long> {
     
     @Query("SELECT a FROM Answer a WHERE a.question.id = :questionId")
     List<Answer> findByQuestionId(@Param("questionId") Long questionId);
+    
+    // (response id, answer id, question id, answer text, numeric value, selected option id) of the answers
+    // to the given responses, one row per selected option
+    @Query("SELECT a.surveyResponse.id, a.id, a.question.id, a.answerText, a.numericValue, so.id.optionId " +
+           "FROM Answer a LEFT JOIN a.selectedOptions so " +
+           "WHERE a.surveyResponse.id IN :responseIds ORDER BY a.id, so.id.optionId")
+    List<Object[]> findRowsBySurveyResponseIdIn(@Param("responseIds") Collection<Long> responseIds);
+    
+    // (question id, answer count) pairs of numeric answers within their question's range
+    @Query("SELECT a.question.id, COUNT(a) FROM Answer a " +
+           "WHERE a.numericValue BETWEEN a.question.minValue AND a.question.maxValue GROUP BY a.question.id")
+    List<Object[]> countInRangeGroupedByQuestionId();
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    // (answer id, answer text) pairs of non-blank texts
+    @Query("SELECT a.id, a.answerText FROM Answer a WHERE a.question.id = :questionId AND a.answerText IS NOT NULL AND TRIM(a.answerText) <> ''")
+    Stream<Object[]> streamTextsByQuestionId(@Param("questionId") Long questionId);
 } 
\ No newline at end of file
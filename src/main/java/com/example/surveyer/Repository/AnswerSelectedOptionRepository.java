@@ -0,0 +1,39 @@
+package com.example.surveyer.Repository;
+
+import com.example.surveyer.Entity.AnswerSelectedOption;
+import com.example.surveyer.Entity.AnswerSelectedOptionId;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface AnswerSelectedOptionRepository extends JpaRepository<AnswerSelectedOption, AnswerSelectedOptionId> {
+    
+    // (answer id, option id) pairs
+    @Query("SELECT s.id.answerId, s.id.optionId FROM AnswerSelectedOption s WHERE s.id.answerId IN :answerIds ORDER BY s.id.optionId ASC")
+    List<Object[]> findOptionIdsByAnswerIdIn(@Param("answerIds") Collection<Long> answerIds);
+    
+    @Query("SELECT COUNT(s) FROM AnswerSelectedOption s WHERE s.id.optionId = :optionId")
+    long countByOptionId(@Param("optionId") Long optionId);
+    
+    @Query("SELECT COUNT(s) FROM AnswerSelectedOption s WHERE s.id.optionId IN :optionIds")
+    long countByOptionIdIn(@Param("optionIds") Collection<Long> optionIds);
+    
+    // (option id, selection count) pairs of a survey
+    @Query("SELECT s.id.optionId, COUNT(s) FROM AnswerSelectedOption s WHERE s.option.question.survey.id = :surveyId GROUP BY s.id.optionId")
+    List<Object[]> countGroupedByOptionForSurvey(@Param("surveyId") Long surveyId);
+    
+    // (option id, selection count) pairs of every option
+    @Query("SELECT s.id.optionId, COUNT(s) FROM AnswerSelectedOption s GROUP BY s.id.optionId")
+    List<Object[]> countGroupedByOption();
+    
+    // (response id, option id) pairs of a survey
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT s.answer.surveyResponse.id, s.id.optionId FROM AnswerSelectedOption s WHERE s.option.question.survey.id = :surveyId")
+    Stream<Object[]> streamResponseOptionIdsBySurveyId(@Param("surveyId") Long surveyId);
+}
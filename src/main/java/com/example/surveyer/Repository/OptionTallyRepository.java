@@ -0,0 +1,52 @@
+package com.example.surveyer.Repository;
+
+import com.example.surveyer.DTO.OptionResultDTO;
+import com.example.surveyer.Entity.OptionTally;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OptionTallyRepository extends JpaRepository<OptionTally, Long> {
+    
+    // Options without a tally row (created before tallies existed) report zero
+    @Query("SELECT new com.example.surveyer.DTO.OptionResultDTO(o.id, o.question.id, o.optionText, COALESCE(t.count, 0)) " +
+           "FROM QuestionOption o LEFT JOIN OptionTally t ON t.optionId = o.id " +
+           "WHERE o.question.survey.id = :surveyId ORDER BY o.id ASC")
+    List<OptionResultDTO> findResultsBySurveyId(@Param("surveyId") Long surveyId);
+    
+    @Modifying
+    @Query("UPDATE OptionTally t SET t.count = t.count + :delta WHERE t.surveyId = :surveyId AND t.optionId IN :optionIds")
+    int addSelections(@Param("surveyId") Long surveyId, @Param("optionIds") Collection<Long> optionIds, @Param("delta") long delta);
+    
+    @Modifying
+    @Query("DELETE FROM OptionTally t WHERE t.questionId = :questionId")
+    int deleteByQuestionId(@Param("questionId") Long questionId);
+    
+    @Modifying
+    @Query("DELETE FROM OptionTally t WHERE t.optionId IN :optionIds")
+    int deleteByOptionIdIn(@Param("optionIds") Collection<Long> optionIds);
+    
+    @Modifying
+    @Query("DELETE FROM OptionTally t WHERE t.surveyId = :surveyId AND NOT EXISTS (SELECT 1 FROM QuestionOption o WHERE o.id = t.optionId)")
+    int deleteOrphans(@Param("surveyId") Long surveyId);
+    
+    @Modifying
+    @Query("INSERT INTO OptionTally (optionId, questionId, surveyId, count) " +
+           "SELECT o.id, o.question.id, o.question.survey.id, 0 FROM QuestionOption o " +
+           "WHERE o.question.survey.id = :surveyId AND NOT EXISTS (SELECT 1 FROM OptionTally t WHERE t.optionId = o.id)")
+    int insertMissing(@Param("surveyId") Long surveyId);
+    
+    @Query("SELECT DISTINCT o.question.survey.id FROM QuestionOption o WHERE NOT EXISTS (SELECT 1 FROM OptionTally t WHERE t.optionId = o.id)")
+    List<Long> findSurveyIdsWithUntalliedOptions();
+    
+    // Locks the survey's tallies so submissions wait for a rebuild instead of racing it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM OptionTally t WHERE t.surveyId = :surveyId")
+    List<OptionTally> findBySurveyIdForUpdate(@Param("surveyId") Long surveyId);
+}
@@ -3,11 +3,25 @@ package com.example.surveyer.Repository;
 import com.example.surveyer.Entity.QuestionOption;
 import com.example.surveyer.Entity.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface QuestionOptionRepository extends JpaRepository<QuestionOption, Long> {
     List<QuestionOption> findByQuestion(Question question);
     List<QuestionOption> findByQuestionId(Long questionId);
     void deleteByQuestion(Question question);
+    
+    @Query("SELECT o FROM QuestionOption o WHERE o.question.id IN :questionIds ORDER BY o.id ASC")
+    List<QuestionOption> findByQuestionIdIn(@Param("questionIds") Collection<Long> questionIds);
+    
+    // (option id, survey id) pairs
+    @Query("SELECT o.id, o.question.survey.id FROM QuestionOption o")
+    List<Object[]> findOptionSurveyIds();
+    
+    // (option id, question id) pairs of a survey
+    @Query("SELECT o.id, o.question.id FROM QuestionOption o WHERE o.question.survey.id = :surveyId")
+    List<Object[]> findOptionQuestionIdsBySurveyId(@Param("surveyId") Long surveyId);
 } 
\ No newline at end of file
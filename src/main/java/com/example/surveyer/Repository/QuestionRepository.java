@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface QuestionRepository extends JpaRepository<Question, Long> {
@@ -15,6 +16,13 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     @Query("SELECT q FROM Question q WHERE q.survey.id = :surveyId ORDER BY q.questionOrder ASC")
     List<Question> findBySurveyIdOrderByOrder(@Param("surveyId") Long surveyId);
     
+    @Query("SELECT q FROM Question q WHERE q.survey.id IN :surveyIds ORDER BY q.questionOrder ASC, q.id ASC")
+    List<Question> findBySurveyIdIn(@Param("surveyIds") Collection<Long> surveyIds);
+    
+    // Questions of a survey with their options, in one query
+    @Query("SELECT DISTINCT q FROM Question q LEFT JOIN FETCH q.options WHERE q.survey = :survey")
+    List<Question> findWithOptionsBySurvey(@Param("survey") Survey survey);
+    
     @Query("SELECT COUNT(q) FROM Question q WHERE q.survey = :survey")
     Long countBySurvey(@Param("survey") Survey survey);
 } 
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.example.surveyer.Repository;
+
+import com.example.surveyer.Entity.RatingTally;
+import com.example.surveyer.Entity.RatingTallyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RatingTallyRepository extends JpaRepository<RatingTally, RatingTallyId> {
+    
+    List<RatingTally> findByQuestionIdIn(Collection<Long> questionIds);
+    
+    // (question id, answer count) pairs
+    @Query("SELECT t.questionId, SUM(t.count) FROM RatingTally t GROUP BY t.questionId")
+    List<Object[]> sumGroupedByQuestionId();
+    
+    @Modifying
+    @Query("DELETE FROM RatingTally t WHERE t.questionId = :questionId")
+    int deleteByQuestionId(@Param("questionId") Long questionId);
+    
+    // Counts the question's stored answers within its range
+    @Modifying
+    @Query("INSERT INTO RatingTally (questionId, ratingValue, count) " +
+           "SELECT a.question.id, a.numericValue, COUNT(a) FROM Answer a " +
+           "WHERE a.question.id = :questionId AND a.numericValue BETWEEN :minValue AND :maxValue " +
+           "GROUP BY a.question.id, a.numericValue")
+    int insertFromAnswers(@Param("questionId") Long questionId, @Param("minValue") Integer minValue, @Param("maxValue") Integer maxValue);
+}
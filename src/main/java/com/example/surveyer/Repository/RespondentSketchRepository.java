@@ -0,0 +1,15 @@
+package com.example.surveyer.Repository;
+
+import com.example.surveyer.Entity.RespondentSketch;
+import com.example.surveyer.Entity.RespondentSketchId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface RespondentSketchRepository extends JpaRepository<RespondentSketch, RespondentSketchId> {
+    
+    // (scope, owner id, response count) triples, without the registers
+    @Query("SELECT s.scope, s.ownerId, s.responseCount FROM RespondentSketch s")
+    List<Object[]> findResponseCounts();
+}
@@ -0,0 +1,38 @@
+package com.example.surveyer.Repository;
+
+import com.example.surveyer.Entity.ResponseRollup;
+import com.example.surveyer.Entity.ResponseRollupId;
+import com.example.surveyer.Enum.TimeGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ResponseRollupRepository extends JpaRepository<ResponseRollup, ResponseRollupId> {
+    
+    @Query("SELECT r FROM ResponseRollup r WHERE r.surveyId = :surveyId AND r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart ASC")
+    List<ResponseRollup> findRange(@Param("surveyId") Long surveyId, @Param("granularity") TimeGranularity granularity,
+                                   @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Adds responses to the minute, hour and day buckets of a submission time in one statement
+    @Modifying
+    @Query("INSERT INTO ResponseRollup (surveyId, granularity, bucketStart, count) VALUES " +
+           "(:surveyId, com.example.surveyer.Enum.TimeGranularity.MINUTE, :minute, :delta), " +
+           "(:surveyId, com.example.surveyer.Enum.TimeGranularity.HOUR, :hour, :delta), " +
+           "(:surveyId, com.example.surveyer.Enum.TimeGranularity.DAY, :day, :delta) " +
+           "ON CONFLICT (surveyId, granularity, bucketStart) DO UPDATE SET count = count + excluded.count")
+    int addResponses(@Param("surveyId") Long surveyId, @Param("minute") LocalDateTime minute,
+                     @Param("hour") LocalDateTime hour, @Param("day") LocalDateTime day, @Param("delta") long delta);
+    
+    @Modifying
+    @Query("DELETE FROM ResponseRollup r WHERE r.surveyId = :surveyId")
+    int deleteBySurveyId(@Param("surveyId") Long surveyId);
+    
+    // (survey id, response count) pairs according to the day buckets
+    @Query("SELECT r.surveyId, SUM(r.count) FROM ResponseRollup r WHERE r.granularity = com.example.surveyer.Enum.TimeGranularity.DAY GROUP BY r.surveyId")
+    List<Object[]> sumDaysGroupedBySurveyId();
+}
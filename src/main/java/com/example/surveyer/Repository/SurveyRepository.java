@@ -1,22 +1,73 @@
 package com.example.surveyer.Repository;
 
+import com.example.surveyer.DTO.SurveyStatsDTO;
+import com.example.surveyer.DTO.SurveySummaryDTO;
 import com.example.surveyer.Entity.Survey;
 import com.example.surveyer.Entity.Users;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface SurveyRepository extends JpaRepository<Survey, Long> {
+    @EntityGraph(attributePaths = "createdBy")
     List<Survey> findByCreatedByOrderByCreatedAtDesc(Users createdBy);
+    @EntityGraph(attributePaths = "createdBy")
     List<Survey> findByIsActiveTrueOrderByCreatedAtDesc();
+    @EntityGraph(attributePaths = "createdBy")
+    List<Survey> findByIsActiveTrueOrderByCreatedAtDesc(Limit limit);
+    @EntityGraph(attributePaths = "createdBy")
     List<Survey> findByIsActiveOrderByCreatedAtDesc(Boolean isActive);
     
+    @EntityGraph(attributePaths = "createdBy")
     @Query("SELECT s FROM Survey s WHERE s.isActive = true AND s.id = :id")
     Optional<Survey> findActiveById(@Param("id") Long id);
     
+    @Query("SELECT s.id FROM Survey s WHERE s.isActive = true")
+    List<Long> findActiveIds();
+    
+    @Query("SELECT s.id FROM Survey s")
+    List<Long> findAllIds();
+    
+    @EntityGraph(attributePaths = "createdBy")
+    List<Survey> findByIdIn(Collection<Long> ids);
+    
+    // Keyset pages over (createdAt, id); the "After" variants continue from a cursor
+    @Query("SELECT new com.example.surveyer.DTO.SurveySummaryDTO(s.id, s.title, s.description, s.isActive, s.createdAt, u.username, s.contentVersion) FROM Survey s JOIN s.createdBy u WHERE s.isActive = true ORDER BY s.createdAt DESC, s.id DESC")
+    List<SurveySummaryDTO> findActiveSummaries(Limit limit);
+    
+    @Query("SELECT new com.example.surveyer.DTO.SurveySummaryDTO(s.id, s.title, s.description, s.isActive, s.createdAt, u.username, s.contentVersion) FROM Survey s JOIN s.createdBy u WHERE s.isActive = true AND s.createdAt <= :createdAt AND (s.createdAt < :createdAt OR s.id < :id) ORDER BY s.createdAt DESC, s.id DESC")
+    List<SurveySummaryDTO> findActiveSummariesAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+    
+    @Query("SELECT new com.example.surveyer.DTO.SurveySummaryDTO(s.id, s.title, s.description, s.isActive, s.createdAt, u.username, s.contentVersion) FROM Survey s JOIN s.createdBy u WHERE u.username = :username ORDER BY s.createdAt DESC, s.id DESC")
+    List<SurveySummaryDTO> findSummariesByCreator(@Param("username") String username, Limit limit);
+    
+    @Query("SELECT new com.example.surveyer.DTO.SurveySummaryDTO(s.id, s.title, s.description, s.isActive, s.createdAt, u.username, s.contentVersion) FROM Survey s JOIN s.createdBy u WHERE u.username = :username AND s.createdAt <= :createdAt AND (s.createdAt < :createdAt OR s.id < :id) ORDER BY s.createdAt DESC, s.id DESC")
+    List<SurveySummaryDTO> findSummariesByCreatorAfter(@Param("username") String username, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+    
+    @Query("SELECT s.contentVersion FROM Survey s WHERE s.id = :id")
+    Optional<Long> findContentVersionById(@Param("id") Long id);
+    
+    @Query("SELECT s.contentVersion FROM Survey s WHERE s.isActive = true AND s.id = :id")
+    Optional<Long> findActiveContentVersionById(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE Survey s SET s.contentVersion = s.contentVersion + 1 WHERE s.id = :id")
+    int incrementContentVersion(@Param("id") Long id);
+    
+    // A single statement with correlated count subqueries, instead of two count queries per survey
+    @Query("SELECT new com.example.surveyer.DTO.SurveyStatsDTO(s.id, s.title, " +
+           "(SELECT COUNT(r) FROM SurveyResponse r WHERE r.survey = s), (SELECT COUNT(q) FROM Question q WHERE q.survey = s), s.isActive) " +
+           "FROM Survey s WHERE s.createdBy.username = :username ORDER BY s.createdAt DESC, s.id DESC")
+    List<SurveyStatsDTO> findStatsByCreator(@Param("username") String username);
+    
     @Query("SELECT COUNT(s) FROM Survey s WHERE s.createdBy = :user")
     Long countByCreatedBy(@Param("user") Users user);
 } 
\ No newline at end of file
@@ -2,12 +2,18 @@ package com.example.surveyer.Repository;
 
 import com.example.surveyer.Entity.SurveyResponse;
 import com.example.surveyer.Entity.Survey;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SurveyResponseRepository extends JpaRepository<SurveyResponse, Long> {
     List<SurveyResponse> findBySurveyOrderBySubmittedAtDesc(Survey survey);
@@ -20,5 +26,57 @@ public interface SurveyResponseRepository extends JpaRepository<SurveyResponse,
     @Query("SELECT COUNT(sr) FROM SurveyResponse sr WHERE sr.survey.id = :surveyId")
     Long countBySurveyId(@Param("surveyId") Long surveyId);
     
+    // (survey id, response count) pairs
+    @Query("SELECT sr.survey.id, COUNT(sr) FROM SurveyResponse sr GROUP BY sr.survey.id")
+    List<Object[]> countGroupedBySurveyId();
+    
+    // (creator id, response count) pairs over all surveys of each creator
+    @Query("SELECT sr.survey.createdBy.id, COUNT(sr) FROM SurveyResponse sr GROUP BY sr.survey.createdBy.id")
+    List<Object[]> countGroupedByCreatorId();
+    
+    @Query("SELECT COUNT(DISTINCT sr.respondentEmail) FROM SurveyResponse sr WHERE sr.survey.createdBy.username = :username")
+    long countDistinctRespondentsByCreator(@Param("username") String username);
+    
+    @Query("SELECT COUNT(DISTINCT sr.respondentEmail) FROM SurveyResponse sr WHERE sr.survey.id IN :surveyIds")
+    long countDistinctRespondentsBySurveyIds(@Param("surveyIds") Collection<Long> surveyIds);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT sr.id FROM SurveyResponse sr WHERE sr.survey.id = :surveyId")
+    Stream<Long> streamIdsBySurveyId(@Param("surveyId") Long surveyId);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT sr.submittedAt FROM SurveyResponse sr WHERE sr.survey.id = :surveyId")
+    Stream<LocalDateTime> streamSubmittedAtBySurveyId(@Param("surveyId") Long surveyId);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT sr.respondentEmail FROM SurveyResponse sr WHERE sr.survey.id = :surveyId")
+    Stream<String> streamRespondentEmailsBySurveyId(@Param("surveyId") Long surveyId);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT sr.respondentEmail FROM SurveyResponse sr WHERE sr.survey.createdBy.id = :creatorId")
+    Stream<String> streamRespondentEmailsByCreatorId(@Param("creatorId") Long creatorId);
+    
+    // Keyset pages of (response id, respondent email, submitted at) over (submittedAt, id), newest first;
+    // the "After" variant continues from a cursor
+    @Query("SELECT sr.id, sr.respondentEmail, sr.submittedAt FROM SurveyResponse sr WHERE sr.survey.id = :surveyId ORDER BY sr.submittedAt DESC, sr.id DESC")
+    List<Object[]> findPageBySurveyId(@Param("surveyId") Long surveyId, Limit limit);
+    
+    @Query("SELECT sr.id, sr.respondentEmail, sr.submittedAt FROM SurveyResponse sr WHERE sr.survey.id = :surveyId AND sr.submittedAt <= :submittedAt AND (sr.submittedAt < :submittedAt OR sr.id < :id) ORDER BY sr.submittedAt DESC, sr.id DESC")
+    List<Object[]> findPageBySurveyIdAfter(@Param("surveyId") Long surveyId, @Param("submittedAt") LocalDateTime submittedAt, @Param("id") Long id, Limit limit);
+    
+    // (response id, respondent email, submitted at, question id, answer text, numeric value, selected option id),
+    // one row per selected option, with the rows of a response next to each other
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT sr.id, sr.respondentEmail, sr.submittedAt, a.question.id, a.answerText, a.numericValue, so.id.optionId " +
+           "FROM SurveyResponse sr LEFT JOIN sr.answers a LEFT JOIN a.selectedOptions so " +
+           "WHERE sr.survey.id = :surveyId ORDER BY sr.submittedAt, sr.id")
+    Stream<Object[]> streamExportRowsBySurveyId(@Param("surveyId") Long surveyId);
+    
     boolean existsBySurveyAndRespondentEmail(Survey survey, String respondentEmail);
+    
+    @Query("SELECT sr.respondentEmail FROM SurveyResponse sr WHERE sr.survey.id = :surveyId AND sr.respondentEmail IN :emails")
+    List<String> findExistingRespondentEmails(@Param("surveyId") Long surveyId, @Param("emails") Collection<String> emails);
+    
+    @Query("SELECT sr.respondentEmail FROM SurveyResponse sr WHERE sr.survey.id = :surveyId")
+    List<String> findRespondentEmailsBySurveyId(@Param("surveyId") Long surveyId);
 } 
\ No newline at end of file
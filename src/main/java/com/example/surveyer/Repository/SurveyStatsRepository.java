@@ -0,0 +1,47 @@
+package com.example.surveyer.Repository;
+
+import com.example.surveyer.DTO.SurveyStatsDTO;
+import com.example.surveyer.Entity.SurveyStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SurveyStatsRepository extends JpaRepository<SurveyStats, Long> {
+    
+    @Query("SELECT new com.example.surveyer.DTO.SurveyStatsDTO(s.id, s.title, st.responseCount, st.questionCount, s.isActive) " +
+           "FROM Survey s JOIN SurveyStats st ON st.surveyId = s.id " +
+           "WHERE s.createdBy.username = :username ORDER BY s.createdAt DESC, s.id DESC")
+    List<SurveyStatsDTO> findByCreator(@Param("username") String username);
+    
+    @Modifying
+    @Query("UPDATE SurveyStats st SET st.responseCount = st.responseCount + :delta WHERE st.surveyId = :surveyId")
+    int addResponses(@Param("surveyId") Long surveyId, @Param("delta") long delta);
+    
+    @Modifying
+    @Query("UPDATE SurveyStats st SET st.questionCount = st.questionCount + :delta WHERE st.surveyId = :surveyId")
+    int addQuestions(@Param("surveyId") Long surveyId, @Param("delta") long delta);
+    
+    // Creates rows, counted from the source tables, for surveys that do not have one yet
+    @Modifying
+    @Query("INSERT INTO SurveyStats (surveyId, responseCount, questionCount) " +
+           "SELECT s.id, (SELECT COUNT(r) FROM SurveyResponse r WHERE r.survey = s), (SELECT COUNT(q) FROM Question q WHERE q.survey = s) " +
+           "FROM Survey s WHERE NOT EXISTS (SELECT 1 FROM SurveyStats st WHERE st.surveyId = s.id)")
+    int insertMissing();
+    
+    @Modifying
+    @Query("INSERT INTO SurveyStats (surveyId, responseCount, questionCount) " +
+           "SELECT s.id, (SELECT COUNT(r) FROM SurveyResponse r WHERE r.survey = s), (SELECT COUNT(q) FROM Question q WHERE q.survey = s) " +
+           "FROM Survey s WHERE s.id = :surveyId AND NOT EXISTS (SELECT 1 FROM SurveyStats st WHERE st.surveyId = s.id)")
+    int insertMissing(@Param("surveyId") Long surveyId);
+    
+    // Locks the survey's stats row so submissions wait for a rebuild instead of racing it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT st FROM SurveyStats st WHERE st.surveyId = :surveyId")
+    Optional<SurveyStats> findBySurveyIdForUpdate(@Param("surveyId") Long surveyId);
+}
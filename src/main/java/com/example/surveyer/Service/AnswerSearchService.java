@@ -0,0 +1,130 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.AnswerSearchHitDTO;
+import com.example.surveyer.DTO.CursorPageDTO;
+import com.example.surveyer.Entity.Question;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Repository.QuestionRepository;
+import com.example.surveyer.Repository.SurveyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Full-text search over free-text answers. Matching uses the {@code answer_tsv} column and its
+ * GIN index (created by PostgresMigrations), so only matching answers are read. Results are
+ * ordered by {@code ts_rank} and paged with a {@link RankCursor}. Headlines are computed
+ * for the returned page only. PostgreSQL only.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AnswerSearchService {
+    
+    // Must match the configuration answer_tsv is generated with
+    private static final String TEXT_SEARCH_CONFIG = "english";
+    
+    private static final int MAX_QUERY_LENGTH = 200;
+    
+    // Control characters cannot occur in the escaped text, so they mark matches unambiguously
+    private static final String START_SEL = "\u0002";
+    private static final String STOP_SEL = "\u0003";
+    
+    private static final String HEADLINE_OPTIONS = "StartSel=\"" + START_SEL + "\", StopSel=\"" + STOP_SEL + "\", " +
+            "MaxWords=35, MinWords=15, MaxFragments=2";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private QuestionRepository questionRepository;
+    
+    @Autowired
+    private SurveyRepository surveyRepository;
+    
+    public CursorPageDTO<AnswerSearchHitDTO> searchQuestion(Long questionId, String username, String query, String cursor, Integer size) {
+        Optional<Question> question = questionRepository.findById(questionId);
+        if (question.isEmpty()) {
+            throw new RuntimeException("Question not found");
+        }
+        
+        if (!question.get().getSurvey().getCreatedBy().getUsername().equals(username)) {
+            throw new RuntimeException("Unauthorized to search answers for this question");
+        }
+        return search("a.question_id = ?", questionId, query, cursor, size);
+    }
+    
+    public CursorPageDTO<AnswerSearchHitDTO> searchSurvey(Long surveyId, String username, String query, String cursor, Integer size) {
+        Optional<Survey> survey = surveyRepository.findById(surveyId);
+        if (survey.isEmpty()) {
+            throw new RuntimeException("Survey not found");
+        }
+        
+        if (!survey.get().getCreatedBy().getUsername().equals(username)) {
+            throw new RuntimeException("Unauthorized to search answers for this survey");
+        }
+        return search("a.survey_response_id IN (SELECT sr.id FROM survey_responses sr WHERE sr.survey_id = ?)", surveyId, query, cursor, size);
+    }
+    
+    private CursorPageDTO<AnswerSearchHitDTO> search(String scope, Long scopeId, String query, String cursor, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Search query is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new RuntimeException("Search query is too long");
+        }
+        int pageSize = KeysetCursor.clampPageSize(size);
+        RankCursor position = cursor == null ? null : RankCursor.decode(cursor);
+        
+        // The inner query ranks the matches and cuts the page; only its rows get a headline
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT p.id, p.question_id, p.survey_response_id, p.rank, ")
+                .append("ts_headline('").append(TEXT_SEARCH_CONFIG).append("', p.answer_text, p.query, ?) AS headline ")
+                .append("FROM (SELECT m.* FROM (")
+                .append("SELECT a.id, a.question_id, a.survey_response_id, a.answer_text, q.query, ts_rank(a.answer_tsv, q.query, 1) AS rank ")
+                .append("FROM answers a, websearch_to_tsquery('").append(TEXT_SEARCH_CONFIG).append("', ?) AS q(query) ")
+                .append("WHERE a.answer_tsv @@ q.query AND ").append(scope)
+                .append(") m ");
+        args.add(HEADLINE_OPTIONS);
+        args.add(query);
+        args.add(scopeId);
+        if (position != null) {
+            sql.append("WHERE m.rank < ? OR (m.rank = ? AND m.id < ?) ");
+            args.add(position.rank());
+            args.add(position.rank());
+            args.add(position.id());
+        }
+        sql.append("ORDER BY m.rank DESC, m.id DESC LIMIT ?) p ORDER BY p.rank DESC, p.id DESC");
+        args.add(pageSize + 1);
+        
+        List<AnswerSearchHitDTO> hits = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new AnswerSearchHitDTO(
+                rs.getLong("id"),
+                rs.getLong("question_id"),
+                rs.getLong("survey_response_id"),
+                rs.getFloat("rank"),
+                highlight(rs.getString("headline"))), args.toArray());
+        
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            AnswerSearchHitDTO last = hits.get(pageSize - 1);
+            nextCursor = new RankCursor(last.getRank(), last.getAnswerId()).encode();
+        }
+        return new CursorPageDTO<>(new ArrayList<>(hits), nextCursor);
+    }
+    
+    private String highlight(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(headline)
+                .replace(START_SEL, "<mark>")
+                .replace(STOP_SEL, "</mark>");
+    }
+}
@@ -0,0 +1,535 @@
+package com.example.surveyer.Service;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.DictionaryBatch;
+import org.apache.arrow.flatbuf.DictionaryEncoding;
+import org.apache.arrow.flatbuf.DictionaryKind;
+import org.apache.arrow.flatbuf.Endianness;
+import org.apache.arrow.flatbuf.Field;
+import org.apache.arrow.flatbuf.FieldNode;
+import org.apache.arrow.flatbuf.Int;
+import org.apache.arrow.flatbuf.KeyValue;
+import org.apache.arrow.flatbuf.Message;
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.flatbuf.MetadataVersion;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.flatbuf.Schema;
+import org.apache.arrow.flatbuf.TimeUnit;
+import org.apache.arrow.flatbuf.Timestamp;
+import org.apache.arrow.flatbuf.Type;
+import org.apache.arrow.flatbuf.Utf8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the Arrow IPC streaming format: a schema, then dictionaries, then record batches of
+ * the rows appended to the columns since the previous batch. Only the few column types the
+ * exports need are supported, and buffers are built directly in little-endian byte arrays, so
+ * no Arrow memory allocator (and none of the JVM flags it requires) is involved. Not
+ * thread-safe.
+ */
+public final class ArrowStreamWriter {
+    
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    
+    private final OutputStream out;
+    private final List<Column> columns;
+    private int rowCount;
+    
+    public ArrowStreamWriter(OutputStream out, List<Column> columns) {
+        this.out = out;
+        this.columns = columns;
+    }
+    
+    public void writeSchema() throws IOException {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int[] fields = new int[columns.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = columns.get(i).field(builder);
+        }
+        int schema = Schema.createSchema(builder, Endianness.Little, Schema.createFieldsVector(builder, fields), 0, 0);
+        writeMessage(builder, MessageHeader.Schema, schema, List.of());
+    }
+    
+    /**
+     * Writes the values of a dictionary referenced by {@link DictionaryColumn}s with the same id,
+     * before the first batch that uses it.
+     */
+    public void writeDictionary(long id, List<String> values) throws IOException {
+        Utf8Column dictionary = new Utf8Column("values", false, Map.of());
+        values.forEach(dictionary::add);
+        List<long[]> nodes = new ArrayList<>();
+        List<Bytes> buffers = new ArrayList<>();
+        dictionary.collect(nodes, buffers);
+        
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int data = recordBatch(builder, values.size(), nodes, buffers);
+        int batch = DictionaryBatch.createDictionaryBatch(builder, id, data, false);
+        writeMessage(builder, MessageHeader.DictionaryBatch, batch, buffers);
+    }
+    
+    /**
+     * Marks the end of a row; every column must have had exactly one value added since the last.
+     */
+    public void endRow() {
+        rowCount++;
+    }
+    
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    /**
+     * Writes the rows added since the last batch, if any, and clears the columns.
+     */
+    public void writeBatch() throws IOException {
+        if (rowCount == 0) {
+            return;
+        }
+        List<long[]> nodes = new ArrayList<>();
+        List<Bytes> buffers = new ArrayList<>();
+        columns.forEach(column -> column.collect(nodes, buffers));
+        
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int batch = recordBatch(builder, rowCount, nodes, buffers);
+        writeMessage(builder, MessageHeader.RecordBatch, batch, buffers);
+        columns.forEach(Column::clear);
+        rowCount = 0;
+    }
+    
+    /**
+     * Writes any remaining rows and the end-of-stream marker.
+     */
+    public void close() throws IOException {
+        writeBatch();
+        writeInt(CONTINUATION);
+        writeInt(0);
+        out.flush();
+    }
+    
+    private static int recordBatch(FlatBufferBuilder builder, long length, List<long[]> nodes, List<Bytes> buffers) {
+        // Vectors of structs are built back to front
+        RecordBatch.startNodesVector(builder, nodes.size());
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            FieldNode.createFieldNode(builder, nodes.get(i)[0], nodes.get(i)[1]);
+        }
+        int nodeVector = builder.endVector();
+        
+        long[] offsets = new long[buffers.size()];
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] = offsets[i - 1] + padded(buffers.get(i - 1).size);
+        }
+        RecordBatch.startBuffersVector(builder, buffers.size());
+        for (int i = buffers.size() - 1; i >= 0; i--) {
+            Buffer.createBuffer(builder, offsets[i], buffers.get(i).size);
+        }
+        int bufferVector = builder.endVector();
+        return RecordBatch.createRecordBatch(builder, length, nodeVector, bufferVector, 0, 0);
+    }
+    
+    // Continuation marker, metadata length, the Message flatbuffer and the body, all 8-byte aligned
+    private void writeMessage(FlatBufferBuilder builder, byte headerType, int header, List<Bytes> body) throws IOException {
+        long bodyLength = 0;
+        for (Bytes buffer : body) {
+            bodyLength += padded(buffer.size);
+        }
+        builder.finish(Message.createMessage(builder, MetadataVersion.V5, headerType, header, bodyLength, 0));
+        
+        ByteBuffer metadata = builder.dataBuffer();
+        int length = metadata.remaining();
+        writeInt(CONTINUATION);
+        writeInt(padded(length));
+        out.write(metadata.array(), metadata.arrayOffset() + metadata.position(), length);
+        writePadding(length);
+        for (Bytes buffer : body) {
+            out.write(buffer.data, 0, buffer.size);
+            writePadding(buffer.size);
+        }
+    }
+    
+    private void writeInt(int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+    
+    private void writePadding(int length) throws IOException {
+        for (int i = length; i < padded(length); i++) {
+            out.write(0);
+        }
+    }
+    
+    private static int padded(int length) {
+        return (length + 7) & ~7;
+    }
+    
+    /**
+     * A column of the stream: its schema field and the buffers of the values added since the
+     * last batch. Null values are added as {@code null}.
+     */
+    public abstract static class Column {
+        
+        private final String name;
+        private final boolean nullable;
+        private final Map<String, String> metadata;
+        protected final Bytes validity = new Bytes();
+        protected int length;
+        protected int nullCount;
+        
+        protected Column(String name, boolean nullable, Map<String, String> metadata) {
+            this.name = name;
+            this.nullable = nullable;
+            this.metadata = metadata;
+        }
+        
+        protected abstract byte typeType();
+        
+        protected abstract int type(FlatBufferBuilder builder);
+        
+        protected int dictionary(FlatBufferBuilder builder) {
+            return 0;
+        }
+        
+        protected int[] children(FlatBufferBuilder builder) {
+            return new int[0];
+        }
+        
+        protected abstract void collectValues(List<long[]> nodes, List<Bytes> buffers);
+        
+        protected abstract void clearValues();
+        
+        // Returns whether a value follows, recording a null otherwise
+        protected boolean addValidity(boolean present) {
+            if (length % 8 == 0) {
+                validity.ensure(1);
+                validity.data[validity.size++] = 0;
+            }
+            if (present) {
+                validity.data[validity.size - 1] |= (byte) (1 << (length % 8));
+            } else {
+                if (!nullable) {
+                    throw new IllegalArgumentException("Column " + name + " is not nullable");
+                }
+                nullCount++;
+            }
+            length++;
+            return present;
+        }
+        
+        int field(FlatBufferBuilder builder) {
+            int nameOffset = builder.createString(name);
+            int typeOffset = type(builder);
+            int dictionaryOffset = dictionary(builder);
+            int childrenOffset = Field.createChildrenVector(builder, children(builder));
+            int[] pairs = new int[metadata.size()];
+            int i = 0;
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                pairs[i++] = KeyValue.createKeyValue(builder, builder.createString(entry.getKey()), builder.createString(entry.getValue()));
+            }
+            int metadataOffset = pairs.length == 0 ? 0 : Field.createCustomMetadataVector(builder, pairs);
+            return Field.createField(builder, nameOffset, nullable, typeType(), typeOffset, dictionaryOffset, childrenOffset, metadataOffset);
+        }
+        
+        void collect(List<long[]> nodes, List<Bytes> buffers) {
+            nodes.add(new long[]{length, nullCount});
+            buffers.add(validity);
+            collectValues(nodes, buffers);
+        }
+        
+        void clear() {
+            validity.size = 0;
+            length = 0;
+            nullCount = 0;
+            clearValues();
+        }
+    }
+    
+    public static final class Int32Column extends Column {
+        
+        private final Bytes values = new Bytes();
+        
+        public Int32Column(String name, boolean nullable, Map<String, String> metadata) {
+            super(name, nullable, metadata);
+        }
+        
+        public void add(Integer value) {
+            values.writeInt(addValidity(value != null) ? value : 0);
+        }
+        
+        @Override
+        protected byte typeType() {
+            return Type.Int;
+        }
+        
+        @Override
+        protected int type(FlatBufferBuilder builder) {
+            return Int.createInt(builder, 32, true);
+        }
+        
+        @Override
+        protected void collectValues(List<long[]> nodes, List<Bytes> buffers) {
+            buffers.add(values);
+        }
+        
+        @Override
+        protected void clearValues() {
+            values.size = 0;
+        }
+    }
+    
+    public static final class Int64Column extends Column {
+        
+        private final Bytes values = new Bytes();
+        
+        public Int64Column(String name, boolean nullable, Map<String, String> metadata) {
+            super(name, nullable, metadata);
+        }
+        
+        public void add(Long value) {
+            values.writeLong(addValidity(value != null) ? value : 0);
+        }
+        
+        @Override
+        protected byte typeType() {
+            return Type.Int;
+        }
+        
+        @Override
+        protected int type(FlatBufferBuilder builder) {
+            return Int.createInt(builder, 64, true);
+        }
+        
+        @Override
+        protected void collectValues(List<long[]> nodes, List<Bytes> buffers) {
+            buffers.add(values);
+        }
+        
+        @Override
+        protected void clearValues() {
+            values.size = 0;
+        }
+    }
+    
+    /**
+     * Microseconds since the epoch without a time zone, as {@link LocalDateTime} has none.
+     */
+    public static final class TimestampColumn extends Column {
+        
+        private final Bytes values = new Bytes();
+        
+        public TimestampColumn(String name, boolean nullable, Map<String, String> metadata) {
+            super(name, nullable, metadata);
+        }
+        
+        public void add(LocalDateTime value) {
+            long micros = 0;
+            if (addValidity(value != null)) {
+                micros = value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000;
+            }
+            values.writeLong(micros);
+        }
+        
+        @Override
+        protected byte typeType() {
+            return Type.Timestamp;
+        }
+        
+        @Override
+        protected int type(FlatBufferBuilder builder) {
+            return Timestamp.createTimestamp(builder, TimeUnit.MICROSECOND, 0);
+        }
+        
+        @Override
+        protected void collectValues(List<long[]> nodes, List<Bytes> buffers) {
+            buffers.add(values);
+        }
+        
+        @Override
+        protected void clearValues() {
+            values.size = 0;
+        }
+    }
+    
+    public static final class Utf8Column extends Column {
+        
+        private final Bytes offsets = new Bytes();
+        private final Bytes values = new Bytes();
+        
+        public Utf8Column(String name, boolean nullable, Map<String, String> metadata) {
+            super(name, nullable, metadata);
+            offsets.writeInt(0);
+        }
+        
+        public void add(String value) {
+            if (addValidity(value != null)) {
+                values.write(value.getBytes(StandardCharsets.UTF_8));
+            }
+            offsets.writeInt(values.size);
+        }
+        
+        @Override
+        protected byte typeType() {
+            return Type.Utf8;
+        }
+        
+        @Override
+        protected int type(FlatBufferBuilder builder) {
+            Utf8.startUtf8(builder);
+            return Utf8.endUtf8(builder);
+        }
+        
+        @Override
+        protected void collectValues(List<long[]> nodes, List<Bytes> buffers) {
+            buffers.add(offsets);
+            buffers.add(values);
+        }
+        
+        @Override
+        protected void clearValues() {
+            offsets.size = 0;
+            offsets.writeInt(0);
+            values.size = 0;
+        }
+    }
+    
+    /**
+     * Strings stored as 32-bit indexes into a dictionary written with
+     * {@link ArrowStreamWriter#writeDictionary}.
+     */
+    public static final class DictionaryColumn extends Column {
+        
+        private final long dictionaryId;
+        private final Bytes indexes = new Bytes();
+        
+        public DictionaryColumn(String name, boolean nullable, Map<String, String> metadata, long dictionaryId) {
+            super(name, nullable, metadata);
+            this.dictionaryId = dictionaryId;
+        }
+        
+        public void add(Integer index) {
+            indexes.writeInt(addValidity(index != null) ? index : 0);
+        }
+        
+        @Override
+        protected byte typeType() {
+            return Type.Utf8;
+        }
+        
+        @Override
+        protected int type(FlatBufferBuilder builder) {
+            Utf8.startUtf8(builder);
+            return Utf8.endUtf8(builder);
+        }
+        
+        @Override
+        protected int dictionary(FlatBufferBuilder builder) {
+            int indexType = Int.createInt(builder, 32, true);
+            return DictionaryEncoding.createDictionaryEncoding(builder, dictionaryId, indexType, false, DictionaryKind.DenseArray);
+        }
+        
+        @Override
+        protected void collectValues(List<long[]> nodes, List<Bytes> buffers) {
+            buffers.add(indexes);
+        }
+        
+        @Override
+        protected void clearValues() {
+            indexes.size = 0;
+        }
+    }
+    
+    /**
+     * Lists of dictionary-encoded strings; the items are added to the child column.
+     */
+    public static final class ListColumn extends Column {
+        
+        private final DictionaryColumn items;
+        private final Bytes offsets = new Bytes();
+        
+        public ListColumn(String name, boolean nullable, Map<String, String> metadata, long dictionaryId) {
+            super(name, nullable, metadata);
+            this.items = new DictionaryColumn("item", false, Map.of(), dictionaryId);
+            offsets.writeInt(0);
+        }
+        
+        public void add(List<Integer> indexes) {
+            if (addValidity(indexes != null)) {
+                indexes.forEach(items::add);
+            }
+            offsets.writeInt(items.length);
+        }
+        
+        @Override
+        protected byte typeType() {
+            return Type.List;
+        }
+        
+        @Override
+        protected int type(FlatBufferBuilder builder) {
+            org.apache.arrow.flatbuf.List.startList(builder);
+            return org.apache.arrow.flatbuf.List.endList(builder);
+        }
+        
+        @Override
+        protected int[] children(FlatBufferBuilder builder) {
+            return new int[]{items.field(builder)};
+        }
+        
+        @Override
+        protected void collectValues(List<long[]> nodes, List<Bytes> buffers) {
+            buffers.add(offsets);
+            items.collect(nodes, buffers);
+        }
+        
+        @Override
+        protected void clearValues() {
+            offsets.size = 0;
+            offsets.writeInt(0);
+            items.clear();
+        }
+    }
+    
+    // Growable little-endian byte buffer
+    static final class Bytes {
+        
+        private byte[] data = new byte[64];
+        private int size;
+        
+        void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+        
+        void writeInt(int value) {
+            ensure(4);
+            for (int i = 0; i < 4; i++) {
+                data[size++] = (byte) (value >>> (8 * i));
+            }
+        }
+        
+        void writeLong(long value) {
+            ensure(8);
+            for (int i = 0; i < 8; i++) {
+                data[size++] = (byte) (value >>> (8 * i));
+            }
+        }
+        
+        void write(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+    }
+}
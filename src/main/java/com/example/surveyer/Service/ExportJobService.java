@@ -0,0 +1,242 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.ExportJobDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports run in the background. A job writes the export of {@link ResponseExportService} to a
+ * gzip-compressed file in {@code surveyer.export.directory} on a bounded pool of workers, and
+ * the file is then downloaded, in ranges if need be. A survey's export is reused for as long
+ * as the survey has received no new responses and its questions and options are unchanged
+ * (same content version), so repeated requests do not export it again.
+ *
+ * <p>Jobs are kept in memory and expire, together with their file, once they have not been
+ * requested for {@code surveyer.export.retention}. Files left over from a previous run are
+ * deleted at startup.
+ */
+@Service
+public class ExportJobService implements SmartLifecycle {
+    
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    
+    @Autowired
+    private ResponseExportService responseExportService;
+    
+    @Autowired
+    private LiveCounters liveCounters;
+    
+    @Value("${surveyer.export.directory:${java.io.tmpdir}/surveyer-exports}")
+    private Path directory;
+    
+    @Value("${surveyer.export.worker-threads:2}")
+    private int workerThreads;
+    
+    @Value("${surveyer.export.queue-capacity:100}")
+    private int queueCapacity;
+    
+    @Value("${surveyer.export.retention:PT24H}")
+    private Duration retention;
+    
+    private Cache<String, ExportJob> jobs;
+    
+    private ThreadPoolExecutor workers;
+    
+    private volatile boolean running;
+    
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "survey-*")) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        jobs = Caffeine.newBuilder()
+                .expireAfterAccess(retention)
+                .removalListener((String jobId, ExportJob job, RemovalCause cause) -> {
+                    if (job != null) {
+                        deleteArtifact(job);
+                    }
+                })
+                .build();
+        AtomicInteger threads = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "export-worker-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    /**
+     * Requests an export of a survey the user created, reusing a queued, running or completed
+     * export of the same format if the survey has had no responses and no edits since it was
+     * requested.
+     * Returns empty when the queue is full so the caller can push back.
+     */
+    public synchronized Optional<ExportJobDTO> submit(Long surveyId, String format, String username) {
+        if (!ResponseExportService.CSV.equals(format) && !ResponseExportService.ARROW.equals(format)) {
+            throw new RuntimeException("Unsupported export format");
+        }
+        long contentVersion = responseExportService.checkCanExport(surveyId, username).getContentVersion();
+        
+        long responseCount = liveCounters.getResponseCount(surveyId);
+        for (ExportJob job : jobs.asMap().values()) {
+            if (job.surveyId.equals(surveyId) && job.format.equals(format) && job.responseCount == responseCount
+                    && job.contentVersion == contentVersion && !job.status.equals(FAILED)) {
+                // Refresh its expiry
+                jobs.getIfPresent(job.jobId);
+                return Optional.of(job.toDTO());
+            }
+        }
+        
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), surveyId, format, username, responseCount, contentVersion);
+        jobs.put(job.jobId, job);
+        try {
+            workers.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.jobId);
+            return Optional.empty();
+        }
+        return Optional.of(job.toDTO());
+    }
+    
+    public Optional<ExportJobDTO> getJob(String jobId, String username) {
+        return findJob(jobId, username).map(ExportJob::toDTO);
+    }
+    
+    /**
+     * The artifact of a completed job, with the file name to download it as.
+     */
+    public Optional<ExportArtifact> getArtifact(String jobId, String username) {
+        return findJob(jobId, username)
+                .filter(job -> job.status.equals(COMPLETED))
+                .map(job -> new ExportArtifact(job.jobId, artifactPath(job), job.sizeBytes,
+                        "survey-" + job.surveyId + "-responses." + (job.format.equals(ResponseExportService.ARROW) ? "arrows" : "csv") + ".gz"));
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        workers.shutdownNow();
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private Optional<ExportJob> findJob(String jobId, String username) {
+        ExportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        if (!job.username.equals(username)) {
+            throw new RuntimeException("Unauthorized to access this export");
+        }
+        return Optional.of(job);
+    }
+    
+    private void run(ExportJob job) {
+        job.status = RUNNING;
+        Path artifact = artifactPath(job);
+        Path partial = artifact.resolveSibling(artifact.getFileName() + ".part");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024)) {
+                responseExportService.export(job.surveyId, job.format, out);
+            }
+            Files.move(partial, artifact, StandardCopyOption.ATOMIC_MOVE);
+            job.sizeBytes = Files.size(artifact);
+            job.completedAt = LocalDateTime.now();
+            job.status = COMPLETED;
+        } catch (IOException | RuntimeException e) {
+            job.error = e.getMessage();
+            job.completedAt = LocalDateTime.now();
+            job.status = FAILED;
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // Deleted with the other leftovers at the next startup
+            }
+        }
+        if (!jobs.asMap().containsKey(job.jobId)) {
+            // Expired while running
+            deleteArtifact(job);
+        }
+    }
+    
+    private Path artifactPath(ExportJob job) {
+        return directory.resolve("survey-" + job.surveyId + "-" + job.jobId + "." + job.format + ".gz");
+    }
+    
+    private void deleteArtifact(ExportJob job) {
+        try {
+            Files.deleteIfExists(artifactPath(job));
+        } catch (IOException ignored) {
+            // Deleted with the other leftovers at the next startup
+        }
+    }
+    
+    public record ExportArtifact(String jobId, Path path, long sizeBytes, String fileName) {
+    }
+    
+    private static final class ExportJob {
+        private final String jobId;
+        private final Long surveyId;
+        private final String format;
+        private final String username;
+        private final long responseCount;
+        // Question and option edits change the export without adding responses
+        private final long contentVersion;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile String status = QUEUED;
+        private volatile Long sizeBytes;
+        private volatile LocalDateTime completedAt;
+        private volatile String error;
+        
+        ExportJob(String jobId, Long surveyId, String format, String username, long responseCount, long contentVersion) {
+            this.jobId = jobId;
+            this.surveyId = surveyId;
+            this.format = format;
+            this.username = username;
+            this.responseCount = responseCount;
+            this.contentVersion = contentVersion;
+        }
+        
+        ExportJobDTO toDTO() {
+            return new ExportJobDTO(jobId, surveyId, format, status, responseCount, sizeBytes, createdAt, completedAt, error);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.surveyer.Service;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct strings added to it, in
+ * {@code 2^precision} one-byte registers regardless of how many strings that is. The estimate
+ * has a relative standard error of {@code 1.04 / sqrt(2^precision)}. Sketches of the same
+ * precision merge into the sketch of the union of their strings, so a string added to several
+ * of them is still counted once. Not thread-safe.
+ */
+public final class HyperLogLog {
+    
+    private final int precision;
+    private final byte[] registers;
+    
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+    
+    /**
+     * Reads a sketch written by {@link #toBytes}.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog(bytes[0]);
+        if (bytes.length != sketch.registers.length + 1) {
+            throw new IllegalArgumentException("Sketch has " + (bytes.length - 1) + " registers, expected " + sketch.registers.length);
+        }
+        System.arraycopy(bytes, 1, sketch.registers, 0, sketch.registers.length);
+        return sketch;
+    }
+    
+    public void add(String value) {
+        long hash = BloomFilter.hash(value);
+        // The top bits pick the register, the position of the first one bit in the rest is its rank
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+    
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+    
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        // Small cardinalities are more accurate counted from the empty registers (linear counting);
+        // with 64-bit hashes no correction is needed at the large end
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+    
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+    
+    public int getPrecision() {
+        return precision;
+    }
+    
+    /**
+     * The precision followed by the registers, {@code 2^precision + 1} bytes.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+    
+    public HyperLogLog copy() {
+        return fromBytes(toBytes());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.surveyer.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Results of requests sent with an {@code Idempotency-Key}, kept in a bounded, expiring
+ * in-memory store. A retry with the same key gets the stored result without running the
+ * request again; a retry that arrives while the first attempt is still running waits for it
+ * instead of running in parallel. Failed attempts are not stored, so they can be retried.
+ */
+@Service
+public class IdempotencyStore {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${surveyer.idempotency.ttl:PT24H}")
+    private Duration ttl;
+    
+    @Value("${surveyer.idempotency.max-size:100000}")
+    private long maxSize;
+    
+    private Cache<String, Attempt> attempts;
+    
+    @PostConstruct
+    void init() {
+        attempts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+    
+    /**
+     * Runs {@code action} once per {@code scope} and {@code key}. Throws
+     * {@link IllegalArgumentException} when the key was already used with a different request.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String key, Object request, Supplier<T> action) {
+        byte[] fingerprint = fingerprint(request);
+        Attempt attempt = new Attempt(fingerprint, new CompletableFuture<>());
+        Attempt existing = attempts.asMap().putIfAbsent(scope + ":" + key, attempt);
+        if (existing != null) {
+            if (!Arrays.equals(existing.fingerprint(), fingerprint)) {
+                throw new IllegalArgumentException("Idempotency key was used for a different request");
+            }
+            try {
+                return (T) existing.result().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        
+        try {
+            T result = action.get();
+            attempt.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            attempts.asMap().remove(scope + ":" + key, attempt);
+            attempt.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to fingerprint request", e);
+        }
+    }
+    
+    private record Attempt(byte[] fingerprint, CompletableFuture<Object> result) {
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.Entity.OptionTally;
+import com.example.surveyer.Entity.SurveyStats;
+import com.example.surveyer.Repository.AnswerSelectedOptionRepository;
+import com.example.surveyer.Repository.OptionTallyRepository;
+import com.example.surveyer.Repository.QuestionOptionRepository;
+import com.example.surveyer.Repository.SurveyResponseRepository;
+import com.example.surveyer.Repository.SurveyStatsRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory response and option selection counters. Committed submissions bump striped
+ * {@link LongAdder}s without locking, and reads of live counts never touch the database. The
+ * counters are rebuilt from the stored selections at startup, so they assume a single application
+ * instance.
+ *
+ * <p>By default the durable counters (survey_stats and option_tallies) are still updated in
+ * the submitting transaction. With {@code surveyer.live-counters.write-behind=true} that update
+ * is skipped and a background flusher writes the accumulated deltas, together with the rollups
+ * buffered by {@link ResponseTimelineService} and the rating counts buffered by
+ * {@link RatingTallyService}, every {@code flush-interval} instead, which
+ * removes hot-row contention on popular polls. Deltas not yet flushed when the process dies
+ * are recovered at the next startup by comparing the rebuilt counters with the stored ones.
+ */
+@Service
+public class LiveCounters implements SmartLifecycle {
+    
+    @Autowired
+    private SurveyResponseRepository surveyResponseRepository;
+    
+    @Autowired
+    private AnswerSelectedOptionRepository answerSelectedOptionRepository;
+    
+    @Autowired
+    private QuestionOptionRepository questionOptionRepository;
+    
+    @Autowired
+    private OptionTallyRepository optionTallyRepository;
+    
+    @Autowired
+    private SurveyStatsRepository surveyStatsRepository;
+    
+    @Autowired
+    private SurveyStatsService surveyStatsService;
+    
+    @Autowired
+    private ResponseTimelineService responseTimelineService;
+    
+    @Autowired
+    private RatingTallyService ratingTallyService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${surveyer.live-counters.write-behind:false}")
+    private boolean writeBehind;
+    
+    @Value("${surveyer.live-counters.flush-interval:PT5S}")
+    private Duration flushInterval;
+    
+    private final Map<Long, Counter> responses = new ConcurrentHashMap<>();
+    
+    private final Map<Long, OptionCounter> selections = new ConcurrentHashMap<>();
+    
+    private final Map<Long, Set<Long>> optionsBySurvey = new ConcurrentHashMap<>();
+    
+    // Held for reading by submissions from their commit until the counters include them, and for
+    // writing while a rebuild recounts, so a recount sees exactly what the counters have applied
+    private final Map<Long, ReadWriteLock> settleLocks = new ConcurrentHashMap<>();
+    
+    private TransactionTemplate transaction;
+    
+    private volatile boolean running;
+    
+    private Thread flusher;
+    
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+    
+    public long getResponseCount(Long surveyId) {
+        Counter counter = responses.get(surveyId);
+        return counter == null ? 0 : counter.total.sum();
+    }
+    
+    /**
+     * Selection count of an option, or null when the option is unknown to the counters.
+     */
+    public Long getSelectionCount(Long optionId) {
+        OptionCounter counter = selections.get(optionId);
+        return counter == null ? null : counter.counter.total.sum();
+    }
+    
+    /**
+     * Selection counts of every option of a survey known to the counters, by option id.
+     */
+    public Map<Long, Long> getSelectionCounts(Long surveyId) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Long optionId : optionsBySurvey.getOrDefault(surveyId, Set.of())) {
+            counts.put(optionId, selections.get(optionId).counter.total.sum());
+        }
+        return counts;
+    }
+    
+    public void registerOption(Long optionId, Long surveyId) {
+        if (selections.putIfAbsent(optionId, new OptionCounter(surveyId, new Counter())) == null) {
+            optionsBySurvey.computeIfAbsent(surveyId, id -> ConcurrentHashMap.newKeySet()).add(optionId);
+        }
+    }
+    
+    /**
+     * Counts submissions made in the current transaction. Unless write-behind is on, the
+     * durable counters are updated right away in the same transaction; the in-memory counters
+     * only move once the transaction commits.
+     */
+    public void recordSubmissions(Long surveyId, long responseCount, Collection<Long> optionIds) {
+        Map<Long, Long> optionCounts = optionIds.stream()
+                .filter(optionId -> {
+                    OptionCounter counter = selections.get(optionId);
+                    return counter != null && counter.surveyId.equals(surveyId);
+                })
+                .collect(Collectors.groupingBy(optionId -> optionId, Collectors.counting()));
+        
+        if (!writeBehind) {
+            surveyStatsService.recordResponses(surveyId, responseCount);
+            writeSelections(surveyId, optionCounts);
+        }
+        
+        Runnable apply = () -> {
+            add(responses.computeIfAbsent(surveyId, id -> new Counter()), responseCount);
+            optionCounts.forEach((optionId, count) -> add(selections.get(optionId).counter, count));
+        };
+        ReadWriteLock settleLock = settleLock(surveyId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean locked;
+                
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    settleLock.readLock().lock();
+                    locked = true;
+                }
+                
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    if (locked) {
+                        settleLock.readLock().unlock();
+                    }
+                }
+            });
+        } else {
+            settleLock.readLock().lock();
+            try {
+                apply.run();
+            } finally {
+                settleLock.readLock().unlock();
+            }
+        }
+    }
+    
+    /**
+     * Recounts a survey from the stored responses and selections and, once the current
+     * transaction commits, moves its counters by the difference between the recount and what
+     * they held when it ran, so submissions counted afterwards are kept. {@code recount} runs
+     * while no submission of the survey is between its commit and its counter update, so the
+     * deltas still waiting to be written behind at that point are exactly those the recount
+     * includes, and only those are dropped. Nothing changes if the transaction rolls back.
+     */
+    public Recount resync(Long surveyId, Supplier<Recount> recount) {
+        Recount counted;
+        Map<Counter, Long> target = new HashMap<>();
+        Map<Counter, long[]> snapshot = new HashMap<>();
+        ReadWriteLock settleLock = settleLock(surveyId);
+        settleLock.writeLock().lock();
+        try {
+            counted = recount.get();
+            Counter responseCounter = responses.computeIfAbsent(surveyId, id -> new Counter());
+            target.put(responseCounter, counted.responses());
+            for (Long optionId : optionsBySurvey.getOrDefault(surveyId, Set.of())) {
+                target.put(selections.get(optionId).counter, counted.selections().getOrDefault(optionId, 0L));
+            }
+            target.keySet().forEach(counter -> snapshot.put(counter, new long[]{counter.total.sum(), counter.pending.sum()}));
+        } finally {
+            settleLock.writeLock().unlock();
+        }
+        
+        Runnable apply = () -> target.forEach((counter, count) -> {
+            long[] before = snapshot.get(counter);
+            counter.total.add(count - before[0]);
+            // If the flusher wrote these meanwhile, the negative delta takes them back out
+            counter.pending.add(-before[1]);
+        });
+        TransactionCallbacks.runAfterCommit(apply);
+        return counted;
+    }
+    
+    // Rebuilds once every bean, schema migrations included, is initialized, and before the web
+    // server and the ingestion drainer start, so no submission is missed
+    @Override
+    public void start() {
+        transaction.executeWithoutResult(status -> rebuild());
+        if (!writeBehind) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushPeriodically, "live-counters-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flush();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Start before and stop after the ingestion drainer, whose last commits still count
+    @Override
+    public int getPhase() {
+        return -100;
+    }
+    
+    private void rebuild() {
+        for (Object[] row : questionOptionRepository.findOptionSurveyIds()) {
+            registerOption((Long) row[0], (Long) row[1]);
+        }
+        for (Object[] row : surveyResponseRepository.countGroupedBySurveyId()) {
+            responses.computeIfAbsent((Long) row[0], id -> new Counter()).total.add((Long) row[1]);
+        }
+        for (Object[] row : answerSelectedOptionRepository.countGroupedByOption()) {
+            OptionCounter counter = selections.get((Long) row[0]);
+            if (counter != null) {
+                counter.counter.total.add((Long) row[1]);
+            }
+        }
+        
+        if (writeBehind) {
+            // Whatever the stored counters are missing was lost with an unflushed delta
+            for (SurveyStats stats : surveyStatsRepository.findAll()) {
+                Counter counter = responses.computeIfAbsent(stats.getSurveyId(), id -> new Counter());
+                counter.pending.add(counter.total.sum() - stats.getResponseCount());
+            }
+            for (OptionTally tally : optionTallyRepository.findAll()) {
+                OptionCounter counter = selections.get(tally.getOptionId());
+                if (counter != null) {
+                    counter.counter.pending.add(counter.counter.total.sum() - tally.getCount());
+                }
+            }
+        }
+    }
+    
+    private ReadWriteLock settleLock(Long surveyId) {
+        return settleLocks.computeIfAbsent(surveyId, id -> new ReentrantReadWriteLock());
+    }
+    
+    private void add(Counter counter, long delta) {
+        counter.total.add(delta);
+        if (writeBehind) {
+            counter.pending.add(delta);
+        }
+    }
+    
+    private void flushPeriodically() {
+        while (running) {
+            try {
+                Thread.sleep(flushInterval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+    
+    private void flush() {
+        Map<Long, Long> responseDeltas = new HashMap<>();
+        responses.forEach((surveyId, counter) -> {
+            long delta = counter.pending.sumThenReset();
+            if (delta != 0) {
+                responseDeltas.put(surveyId, delta);
+            }
+        });
+        Map<Long, Map<Long, Long>> selectionDeltas = new HashMap<>();
+        selections.forEach((optionId, counter) -> {
+            long delta = counter.counter.pending.sumThenReset();
+            if (delta != 0) {
+                selectionDeltas.computeIfAbsent(counter.surveyId, id -> new HashMap<>()).put(optionId, delta);
+            }
+        });
+        Map<Long, Map<LocalDateTime, Long>> rollupDeltas = responseTimelineService.drainPending();
+        Map<Long, Map<Integer, Long>> ratingDeltas = ratingTallyService.drainPending();
+        if (responseDeltas.isEmpty() && selectionDeltas.isEmpty() && rollupDeltas.isEmpty() && ratingDeltas.isEmpty()) {
+            return;
+        }
+        
+        try {
+            transaction.executeWithoutResult(status -> {
+                responseDeltas.forEach(surveyStatsService::recordResponses);
+                selectionDeltas.forEach(this::writeSelections);
+                responseTimelineService.write(rollupDeltas);
+                ratingTallyService.write(ratingDeltas);
+            });
+        } catch (RuntimeException e) {
+            // Keep the deltas for the next round
+            responseTimelineService.addPending(rollupDeltas);
+            ratingTallyService.addPending(ratingDeltas);
+            responseDeltas.forEach((surveyId, delta) -> responses.get(surveyId).pending.add(delta));
+            selectionDeltas.values().forEach(deltas ->
+                    deltas.forEach((optionId, delta) -> selections.get(optionId).counter.pending.add(delta)));
+        }
+    }
+    
+    // One bulk update per distinct delta, so a single submission costs one statement
+    private void writeSelections(Long surveyId, Map<Long, Long> optionCounts) {
+        optionCounts.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())))
+                .forEach((delta, optionIds) -> optionTallyRepository.addSelections(surveyId, optionIds, delta));
+    }
+    
+    private static final class Counter {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder pending = new LongAdder();
+    }
+    
+    private record OptionCounter(Long surveyId, Counter counter) {
+    }
+    
+    /**
+     * A survey's response count and its selection counts by option id, as stored.
+     */
+    public record Recount(long responses, Map<Long, Long> selections) {
+    }
+}
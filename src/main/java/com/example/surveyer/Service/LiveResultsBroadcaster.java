@@ -0,0 +1,236 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.LiveResultsEventDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes live survey results to Server-Sent Events subscribers. A single ticker compares each
+ * subscribed survey's {@link LiveCounters} with what it last published every
+ * {@code surveyer.live-results.interval}, and publishes what changed as one event, serialized
+ * once and fanned out to every subscriber of the survey. Neither subscribing nor publishing
+ * touches the database beyond the ownership check, and submissions never wait for subscribers.
+ *
+ * <p>Events are written by a small pool of sender threads. A subscriber whose previous event is
+ * still being written skips events and is sent a full snapshot once it has caught up, so a slow
+ * client neither holds up the others nor sees stale counts.
+ */
+@Service
+public class LiveResultsBroadcaster implements SmartLifecycle {
+    
+    @Autowired
+    private LiveCounters liveCounters;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${surveyer.live-results.interval:PT0.25S}")
+    private Duration interval;
+    
+    @Value("${surveyer.live-results.timeout:PT30M}")
+    private Duration timeout;
+    
+    @Value("${surveyer.live-results.max-subscribers:10000}")
+    private int maxSubscribers;
+    
+    @Value("${surveyer.live-results.sender-threads:4}")
+    private int senderThreads;
+    
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    
+    private ExecutorService senders;
+    
+    private volatile boolean running;
+    
+    private Thread ticker;
+    
+    @PostConstruct
+    void init() {
+        AtomicInteger threads = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "live-results-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Subscribes to a survey's live results: a snapshot event first, then delta events with the
+     * counts that changed. The ownership check reads through JDBC directly, so the connection is
+     * returned right away instead of being held by the request for as long as the stream is open.
+     */
+    public SseEmitter subscribe(Long surveyId, String username) {
+        List<String> owners = jdbcTemplate.queryForList(
+                "SELECT u.username FROM surveys s JOIN users u ON u.id = s.created_by WHERE s.id = ?", String.class, surveyId);
+        if (owners.isEmpty()) {
+            throw new RuntimeException("Survey not found");
+        }
+        if (!owners.get(0).equals(username)) {
+            throw new RuntimeException("Unauthorized to access results for this survey");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RuntimeException("Too many live results subscribers");
+        }
+        
+        Subscriber subscriber = new Subscriber(surveyId, new SseEmitter(timeout.toMillis()));
+        // Atomic with the ticker dropping an empty channel, so the subscriber cannot land in a dropped one
+        channels.compute(surveyId, (id, channel) -> {
+            Channel joined = channel != null ? channel : new Channel();
+            joined.subscribers.add(subscriber);
+            return joined;
+        });
+        subscriber.emitter.onCompletion(subscriber.remove);
+        subscriber.emitter.onTimeout(subscriber.remove);
+        subscriber.emitter.onError(error -> subscriber.remove.run());
+        return subscriber.emitter;
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        ticker = new Thread(this::tickPeriodically, "live-results-ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.interrupt();
+        }
+        senders.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void tickPeriodically() {
+        while (running) {
+            try {
+                Thread.sleep(interval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+            channels.forEach(this::publish);
+        }
+    }
+    
+    // Only the ticker thread calls this, so a channel's last published state needs no locking
+    private void publish(Long surveyId, Channel channel) {
+        if (channel.subscribers.isEmpty()) {
+            channels.computeIfPresent(surveyId, (id, current) -> current.subscribers.isEmpty() ? null : current);
+            return;
+        }
+        
+        long responses = liveCounters.getResponseCount(surveyId);
+        boolean anyStale = channel.subscribers.stream().anyMatch(subscriber -> subscriber.stale);
+        // Selections only move together with the response count
+        if (responses == channel.lastResponses && !anyStale) {
+            return;
+        }
+        
+        Map<Long, Long> counts = liveCounters.getSelectionCounts(surveyId);
+        Map<Long, Long> changed = new HashMap<>();
+        counts.forEach((optionId, count) -> {
+            if (!Objects.equals(channel.lastCounts.get(optionId), count)) {
+                changed.put(optionId, count);
+            }
+        });
+        boolean hasDelta = responses != channel.lastResponses || !changed.isEmpty();
+        channel.lastResponses = responses;
+        channel.lastCounts = counts;
+        
+        SseEmitter.SseEventBuilder snapshot = anyStale ? event("snapshot", new LiveResultsEventDTO(surveyId, responses, counts)) : null;
+        SseEmitter.SseEventBuilder delta = hasDelta ? event("delta", new LiveResultsEventDTO(surveyId, responses, changed)) : null;
+        for (Subscriber subscriber : channel.subscribers) {
+            SseEmitter.SseEventBuilder next = subscriber.stale ? snapshot : delta;
+            if (next == null) {
+                continue;
+            }
+            if (!subscriber.sending.compareAndSet(false, true)) {
+                // Still writing an earlier event: catch up with a snapshot later
+                subscriber.stale = true;
+                continue;
+            }
+            subscriber.stale = false;
+            senders.execute(() -> send(subscriber, next));
+        }
+    }
+    
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; removed here too, as the emitter's callbacks may not run
+            subscriber.emitter.completeWithError(e);
+            subscriber.remove.run();
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+    
+    // Serialized once per tick, whatever the number of subscribers
+    private SseEmitter.SseEventBuilder event(String name, LiveResultsEventDTO data) {
+        try {
+            return SseEmitter.event().name(name).data(objectMapper.writeValueAsString(data), MediaType.APPLICATION_JSON);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static final class Channel {
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private long lastResponses = -1;
+        private Map<Long, Long> lastCounts = Map.of();
+    }
+    
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        // The only way a subscriber is removed; idempotent, as several emitter callbacks may fire
+        private final Runnable remove;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // New subscribers and those that skipped an event get a full snapshot next
+        private volatile boolean stale = true;
+        
+        Subscriber(Long surveyId, SseEmitter emitter) {
+            this.emitter = emitter;
+            this.remove = () -> channels.computeIfPresent(surveyId, (id, channel) -> {
+                if (channel.subscribers.remove(this)) {
+                    subscriberCount.decrementAndGet();
+                }
+                return channel;
+            });
+        }
+    }
+}
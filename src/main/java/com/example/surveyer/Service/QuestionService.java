@@ -3,14 +3,19 @@ package com.example.surveyer.Service;
 import com.example.surveyer.DTO.QuestionDTO;
 import com.example.surveyer.DTO.QuestionOptionDTO;
 import com.example.surveyer.Entity.*;
+import com.example.surveyer.Enum.QuestionType;
 import com.example.surveyer.Repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -28,6 +33,24 @@ public class QuestionService {
     @Autowired
     private UsersRepository usersRepository;
     
+    @Autowired
+    private SurveyAggregateLoader surveyAggregateLoader;
+    
+    @Autowired
+    private SurveySnapshotCache surveySnapshotCache;
+    
+    @Autowired
+    private SurveyStatsService surveyStatsService;
+    
+    @Autowired
+    private SurveyResultsService surveyResultsService;
+    
+    @Autowired
+    private RatingTallyService ratingTallyService;
+    
+    @Autowired
+    private AnswerSelectedOptionRepository answerSelectedOptionRepository;
+    
     public QuestionDTO addQuestionToSurvey(Long surveyId, QuestionDTO questionDTO, String username) {
         Optional<Survey> survey = surveyRepository.findById(surveyId);
         if (survey.isEmpty()) {
@@ -42,6 +65,7 @@ public class QuestionService {
         question.setSurvey(survey.get());
         question.setQuestionText(questionDTO.getQuestionText());
         question.setType(questionDTO.getType());
+        applyNumericRange(question, questionDTO);
         
         // Set question order
         Long questionCount = questionRepository.countBySurvey(survey.get());
@@ -56,10 +80,12 @@ public class QuestionService {
                 QuestionOption option = new QuestionOption();
                 option.setQuestion(savedQuestion);
                 option.setOptionText(optionDTO.getOptionText());
-                questionOptionRepository.save(option);
+                surveyResultsService.initialize(questionOptionRepository.save(option));
             }
         }
         
+        surveyStatsService.recordQuestions(surveyId, 1);
+        markSurveyChanged(surveyId);
         return convertToDTO(savedQuestion);
     }
     
@@ -74,28 +100,32 @@ public class QuestionService {
             throw new RuntimeException("Unauthorized to update this question");
         }
         
+        QuestionType oldType = question.getType();
+        Integer oldMinValue = question.getMinValue();
+        Integer oldMaxValue = question.getMaxValue();
         question.setQuestionText(questionDTO.getQuestionText());
         question.setType(questionDTO.getType());
+        applyNumericRange(question, questionDTO);
         if (questionDTO.getQuestionOrder() != null) {
             question.setQuestionOrder(questionDTO.getQuestionOrder());
         }
         
         Question savedQuestion = questionRepository.save(question);
+        boolean numeric = (oldType != null && oldType.isNumeric())
+                || (question.getType() != null && question.getType().isNumeric());
+        boolean rangeChanged = oldType != question.getType()
+                || !Objects.equals(oldMinValue, question.getMinValue())
+                || !Objects.equals(oldMaxValue, question.getMaxValue());
+        if (numeric && rangeChanged) {
+            // Only a changed type or range changes which answers are tallied
+            ratingTallyService.rebuild(savedQuestion);
+        }
         
-        // Update options
         if (questionDTO.getOptions() != null) {
-            // Remove existing options
-            questionOptionRepository.deleteByQuestion(question);
-            
-            // Add new options
-            for (QuestionOptionDTO optionDTO : questionDTO.getOptions()) {
-                QuestionOption option = new QuestionOption();
-                option.setQuestion(savedQuestion);
-                option.setOptionText(optionDTO.getOptionText());
-                questionOptionRepository.save(option);
-            }
+            updateOptions(savedQuestion, questionDTO.getOptions());
         }
         
+        markSurveyChanged(question.getSurvey().getId());
         return convertToDTO(savedQuestion);
     }
     
@@ -111,13 +141,14 @@ public class QuestionService {
         }
         
         questionRepository.delete(question);
+        surveyResultsService.removeQuestion(question.getId());
+        ratingTallyService.removeQuestion(question.getId());
+        surveyStatsService.recordQuestions(question.getSurvey().getId(), -1);
+        markSurveyChanged(question.getSurvey().getId());
     }
     
     public List<QuestionDTO> getQuestionsBySurvey(Long surveyId) {
-        return questionRepository.findBySurveyIdOrderByQuestionOrderAsc(surveyId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return surveyAggregateLoader.loadQuestions(questionRepository.findBySurveyIdOrderByQuestionOrderAsc(surveyId));
     }
     
     public QuestionOptionDTO addOptionToQuestion(Long questionId, QuestionOptionDTO optionDTO, String username) {
@@ -130,26 +161,101 @@ public class QuestionService {
             throw new RuntimeException("Unauthorized to add options to this question");
         }
         
+        if (question.get().getType() != null && question.get().getType().isNumeric()) {
+            throw new RuntimeException("Numeric questions do not have options");
+        }
+        
         QuestionOption option = new QuestionOption();
         option.setQuestion(question.get());
         option.setOptionText(optionDTO.getOptionText());
         
         QuestionOption savedOption = questionOptionRepository.save(option);
+        surveyResultsService.initialize(savedOption);
+        markSurveyChanged(question.get().getSurvey().getId());
         return convertOptionToDTO(savedOption);
     }
     
-    private QuestionDTO convertToDTO(Question question) {
-        QuestionDTO dto = new QuestionDTO();
-        dto.setId(question.getId());
-        dto.setQuestionText(question.getQuestionText());
-        dto.setType(question.getType());
-        dto.setQuestionOrder(question.getQuestionOrder());
+    /**
+     * Diffs the options against the question's current ones: options sent with the id of an
+     * existing option are updated in place, options without an id are added, and options left
+     * out are removed. Options that have been selected cannot be removed, as that would delete
+     * their answers.
+     */
+    private void updateOptions(Question question, List<QuestionOptionDTO> optionDTOs) {
+        Map<Long, QuestionOption> existing = new HashMap<>();
+        for (QuestionOption option : questionOptionRepository.findByQuestion(question)) {
+            existing.put(option.getId(), option);
+        }
         
-        // Load options
-        List<QuestionOption> options = questionOptionRepository.findByQuestion(question);
-        dto.setOptions(options.stream().map(this::convertOptionToDTO).collect(Collectors.toList()));
+        Set<Long> keptIds = new HashSet<>();
+        for (QuestionOptionDTO optionDTO : optionDTOs) {
+            if (optionDTO.getId() != null && !existing.containsKey(optionDTO.getId())) {
+                throw new RuntimeException("Option not found: " + optionDTO.getId());
+            }
+            if (optionDTO.getId() != null) {
+                keptIds.add(optionDTO.getId());
+            }
+        }
         
-        return dto;
+        List<QuestionOption> removed = existing.values().stream()
+                .filter(option -> !keptIds.contains(option.getId()))
+                .toList();
+        List<Long> removedIds = removed.stream().map(QuestionOption::getId).toList();
+        if (!removedIds.isEmpty() && answerSelectedOptionRepository.countByOptionIdIn(removedIds) > 0) {
+            throw new RuntimeException("Options that have been selected cannot be removed");
+        }
+        
+        question.getOptions().removeAll(removed);
+        questionOptionRepository.deleteAll(removed);
+        surveyResultsService.removeOptions(removedIds);
+        
+        for (QuestionOptionDTO optionDTO : optionDTOs) {
+            if (optionDTO.getId() != null) {
+                existing.get(optionDTO.getId()).setOptionText(optionDTO.getOptionText());
+                continue;
+            }
+            QuestionOption option = new QuestionOption();
+            option.setQuestion(question);
+            option.setOptionText(optionDTO.getOptionText());
+            surveyResultsService.initialize(questionOptionRepository.save(option));
+        }
+    }
+    
+    /**
+     * Sets the answer range of numeric questions: NPS is always 0 to 10, RATING defaults to
+     * 1 to 5 and spans at most 101 values. Numeric questions take no options.
+     */
+    private void applyNumericRange(Question question, QuestionDTO questionDTO) {
+        if (question.getType() == null || !question.getType().isNumeric()) {
+            question.setMinValue(null);
+            question.setMaxValue(null);
+            return;
+        }
+        
+        if (questionDTO.getOptions() != null && !questionDTO.getOptions().isEmpty()) {
+            throw new RuntimeException("Numeric questions do not have options");
+        }
+        if (question.getType() == QuestionType.NPS) {
+            question.setMinValue(0);
+            question.setMaxValue(10);
+            return;
+        }
+        int minValue = questionDTO.getMinValue() != null ? questionDTO.getMinValue() : 1;
+        int maxValue = questionDTO.getMaxValue() != null ? questionDTO.getMaxValue() : 5;
+        if (minValue >= maxValue || maxValue - minValue > 100) {
+            throw new RuntimeException("Rating range must span 2 to 101 values");
+        }
+        question.setMinValue(minValue);
+        question.setMaxValue(maxValue);
+    }
+    
+    private void markSurveyChanged(Long surveyId) {
+        surveyRepository.incrementContentVersion(surveyId);
+        surveySnapshotCache.invalidate(surveyId);
+    }
+    
+    private QuestionDTO convertToDTO(Question question) {
+        return surveyAggregateLoader.loadQuestion(question);
     }
     
     private QuestionOptionDTO convertOptionToDTO(QuestionOption option) {
@@ -158,4 +264,4 @@ public class QuestionService {
         dto.setOptionText(option.getOptionText());
         return dto;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
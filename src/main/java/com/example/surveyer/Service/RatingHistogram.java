@@ -0,0 +1,86 @@
+package com.example.surveyer.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answer counts of a numeric question per value of its range. Answers are whole numbers in a
+ * range of at most 101 values, so this is an exact quantile sketch of constant size, and two
+ * histograms of the same question merge by adding their counts (which is how the stored
+ * rating tallies are kept up to date).
+ */
+public final class RatingHistogram {
+    
+    private final int minValue;
+    private final long[] counts;
+    private long total;
+    private long sum;
+    
+    public RatingHistogram(int minValue, int maxValue) {
+        this.minValue = minValue;
+        this.counts = new long[maxValue - minValue + 1];
+    }
+    
+    // Values outside the range, left by an earlier range of the question, are ignored
+    public void add(int value, long count) {
+        int index = value - minValue;
+        if (index < 0 || index >= counts.length) {
+            return;
+        }
+        counts[index] += count;
+        total += count;
+        sum += value * count;
+    }
+    
+    public long getCount() {
+        return total;
+    }
+    
+    public Double mean() {
+        return total == 0 ? null : (double) sum / total;
+    }
+    
+    /**
+     * The smallest value that at least the given fraction of answers is less than or equal to
+     * (nearest rank), or null without answers.
+     */
+    public Integer quantile(double fraction) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return minValue + i;
+            }
+        }
+        return minValue + counts.length - 1;
+    }
+    
+    /**
+     * Net Promoter Score on the 0-10 scale: the percentage of promoters (9 and 10) minus the
+     * percentage of detractors (0 to 6), or null without answers.
+     */
+    public Double npsScore() {
+        if (total == 0) {
+            return null;
+        }
+        long promoters = 0;
+        long detractors = 0;
+        for (int i = 0; i < counts.length; i++) {
+            int value = minValue + i;
+            if (value >= 9) {
+                promoters += counts[i];
+            } else if (value <= 6) {
+                detractors += counts[i];
+            }
+        }
+        return 100.0 * (promoters - detractors) / total;
+    }
+    
+    public List<Long> getCounts() {
+        return Arrays.stream(counts).boxed().toList();
+    }
+}
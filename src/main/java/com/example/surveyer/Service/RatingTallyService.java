@@ -0,0 +1,194 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.RatingSummaryDTO;
+import com.example.surveyer.Entity.Question;
+import com.example.surveyer.Entity.RatingTally;
+import com.example.surveyer.Enum.QuestionType;
+import com.example.surveyer.Repository.AnswerRepository;
+import com.example.surveyer.Repository.QuestionRepository;
+import com.example.surveyer.Repository.RatingTallyRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Per-value answer counts of numeric (RATING and NPS) questions, updated with every submission,
+ * so mean, median, p90 and NPS are read from at most 101 rows per question instead of from
+ * the answers (see {@link RatingHistogram}). With {@code surveyer.live-counters.write-behind=true}
+ * the counts are buffered and written by the live counters' flusher; whatever is lost in a
+ * crash is repaired at startup.
+ */
+@Service
+@Transactional
+public class RatingTallyService {
+    
+    // Rows per upsert statement, which bounds its bind parameters and distinct query strings
+    private static final int ROWS_PER_STATEMENT = 100;
+    
+    @Autowired
+    private RatingTallyRepository ratingTallyRepository;
+    
+    @Autowired
+    private AnswerRepository answerRepository;
+    
+    @Autowired
+    private QuestionRepository questionRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Value("${surveyer.live-counters.write-behind:false}")
+    private boolean writeBehind;
+    
+    // Unwritten counts per question and value (write-behind only)
+    private final Map<Long, Map<Integer, LongAdder>> pending = new ConcurrentHashMap<>();
+    
+    /**
+     * Adds answer counts made in the current transaction, keyed by question id and then by
+     * value. Unless write-behind is on, they are written right away in a single statement.
+     */
+    public void recordRatings(Map<Long, Map<Integer, Long>> countsByQuestion) {
+        if (countsByQuestion.isEmpty()) {
+            return;
+        }
+        if (!writeBehind) {
+            write(countsByQuestion);
+            return;
+        }
+        
+        Runnable buffer = () -> addPending(countsByQuestion);
+        TransactionCallbacks.runAfterCommit(buffer);
+    }
+    
+    /**
+     * Removes and returns the buffered counts, per question and value.
+     */
+    public Map<Long, Map<Integer, Long>> drainPending() {
+        Map<Long, Map<Integer, Long>> drained = new HashMap<>();
+        pending.forEach((questionId, values) -> values.forEach((value, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                drained.computeIfAbsent(questionId, id -> new HashMap<>()).put(value, delta);
+            }
+        }));
+        return drained;
+    }
+    
+    // Buffers counts for the next flush, also to put back those whose write failed
+    public void addPending(Map<Long, Map<Integer, Long>> countsByQuestion) {
+        countsByQuestion.forEach((questionId, counts) -> counts.forEach((value, delta) ->
+                pending.computeIfAbsent(questionId, id -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(value, v -> new LongAdder())
+                        .add(delta)));
+    }
+    
+    /**
+     * Adds the counts with one multi-row upsert per {@value #ROWS_PER_STATEMENT} distinct
+     * question and value pairs, rather than one statement per pair.
+     */
+    public void write(Map<Long, Map<Integer, Long>> countsByQuestion) {
+        List<Object[]> rows = new ArrayList<>();
+        countsByQuestion.forEach((questionId, counts) ->
+                counts.forEach((value, delta) -> rows.add(new Object[]{questionId, value, delta})));
+        for (int start = 0; start < rows.size(); start += ROWS_PER_STATEMENT) {
+            List<Object[]> chunk = rows.subList(start, Math.min(start + ROWS_PER_STATEMENT, rows.size()));
+            StringBuilder hql = new StringBuilder("INSERT INTO RatingTally (questionId, ratingValue, count) VALUES ");
+            for (int i = 0; i < chunk.size(); i++) {
+                hql.append(i == 0 ? "" : ", ").append("(:q").append(i).append(", :v").append(i).append(", :d").append(i).append(')');
+            }
+            hql.append(" ON CONFLICT (questionId, ratingValue) DO UPDATE SET count = count + excluded.count");
+            
+            Query upsert = entityManager.createQuery(hql.toString());
+            for (int i = 0; i < chunk.size(); i++) {
+                upsert.setParameter("q" + i, chunk.get(i)[0]);
+                upsert.setParameter("v" + i, chunk.get(i)[1]);
+                upsert.setParameter("d" + i, chunk.get(i)[2]);
+            }
+            upsert.executeUpdate();
+        }
+    }
+    
+    /**
+     * Summaries of the given numeric questions by question id.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, RatingSummaryDTO> getSummaries(Collection<Question> questions) {
+        if (questions.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, RatingHistogram> histograms = questions.stream()
+                .collect(Collectors.toMap(Question::getId, question -> new RatingHistogram(question.getMinValue(), question.getMaxValue())));
+        for (RatingTally tally : ratingTallyRepository.findByQuestionIdIn(histograms.keySet())) {
+            histograms.get(tally.getQuestionId()).add(tally.getRatingValue(), tally.getCount());
+        }
+        
+        Map<Long, RatingSummaryDTO> summaries = new HashMap<>();
+        for (Question question : questions) {
+            RatingHistogram histogram = histograms.get(question.getId());
+            summaries.put(question.getId(), new RatingSummaryDTO(histogram.getCount(), histogram.mean(),
+                    histogram.quantile(0.5), histogram.quantile(0.9),
+                    question.getType() == QuestionType.NPS ? histogram.npsScore() : null,
+                    question.getMinValue(), question.getMaxValue(), histogram.getCounts()));
+        }
+        return summaries;
+    }
+    
+    /**
+     * Recomputes a question's counts from its stored answers within its current range, after
+     * its type or range changed or as a repair. Like the other rebuilds, answers committed while
+     * it runs may be counted twice or not at all. Buffered counts made before the answers are
+     * read are among them and dropped; later ones are kept for the flusher.
+     */
+    public void rebuild(Question question) {
+        Map<Integer, Long> counted = new HashMap<>();
+        Optional.ofNullable(pending.get(question.getId())).ifPresent(values ->
+                values.forEach((value, adder) -> counted.put(value, adder.sum())));
+        
+        ratingTallyRepository.deleteByQuestionId(question.getId());
+        if (question.getType() != null && question.getType().isNumeric()) {
+            ratingTallyRepository.insertFromAnswers(question.getId(), question.getMinValue(), question.getMaxValue());
+        }
+        
+        addPending(Map.of(question.getId(), counted.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> -entry.getValue()))));
+    }
+    
+    public void removeQuestion(Long questionId) {
+        ratingTallyRepository.deleteByQuestionId(questionId);
+        pending.remove(questionId);
+    }
+    
+    /**
+     * Numeric questions whose tallies disagree with their number of in-range answers:
+     * write-behind counts lost in a crash. Called at startup, before submissions are taken, by
+     * {@link com.example.surveyer.config.CounterReconciler}, which rebuilds each of them.
+     */
+    @Transactional(readOnly = true)
+    public List<Question> findQuestionsToReconcile() {
+        Map<Long, Long> tallied = ratingTallyRepository.sumGroupedByQuestionId()
+                .stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> ((Number) row[1]).longValue()));
+        Map<Long, Long> answered = answerRepository.countInRangeGroupedByQuestionId()
+                .stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+        
+        List<Long> questionIds = answered.keySet().stream()
+                .filter(questionId -> !Objects.equals(tallied.get(questionId), answered.get(questionId)))
+                .toList();
+        return questionIds.isEmpty() ? List.of() : questionRepository.findAllById(questionIds);
+    }
+}
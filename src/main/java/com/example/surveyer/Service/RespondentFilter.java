@@ -0,0 +1,72 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.Repository.SurveyRepository;
+import com.example.surveyer.Repository.SurveyResponseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-survey Bloom filters of respondent emails that let submissions skip the duplicate
+ * check query when an email has definitely not answered yet. The filters are only a hint:
+ * the unique constraint on {@code survey_responses(survey_id, respondent_email)} is what
+ * rejects duplicates, including concurrent ones. Filters are built at startup for active
+ * surveys, lazily for others, and rebuilt larger once they fill up.
+ */
+@Service
+public class RespondentFilter {
+    
+    private static final int MIN_CAPACITY = 1024;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    
+    @Autowired
+    private SurveyResponseRepository surveyResponseRepository;
+    
+    @Autowired
+    private SurveyRepository surveyRepository;
+    
+    private final Map<Long, BloomFilter> filters = new ConcurrentHashMap<>();
+    
+    /**
+     * False means the email has certainly not responded to the survey; true means it may have
+     * and the database has to be asked.
+     */
+    public boolean mightHaveResponded(Long surveyId, String email) {
+        return filters.computeIfAbsent(surveyId, this::build).mightContain(email);
+    }
+    
+    /**
+     * Records a respondent as soon as their response is written, before commit. A rolled back
+     * response only leaves a false positive behind.
+     */
+    public void record(Long surveyId, String email) {
+        BloomFilter filter = filters.get(surveyId);
+        if (filter == null) {
+            return;
+        }
+        filter.add(email);
+        if (filter.isSaturated()) {
+            filters.remove(surveyId, filter);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (Long surveyId : surveyRepository.findActiveIds()) {
+            filters.put(surveyId, build(surveyId));
+        }
+    }
+    
+    private BloomFilter build(Long surveyId) {
+        List<String> emails = surveyResponseRepository.findRespondentEmailsBySurveyId(surveyId);
+        // Leave room to double before the filter has to be rebuilt
+        BloomFilter filter = new BloomFilter(Math.max(MIN_CAPACITY, emails.size() * 2L), FALSE_POSITIVE_RATE);
+        emails.forEach(filter::add);
+        return filter;
+    }
+}
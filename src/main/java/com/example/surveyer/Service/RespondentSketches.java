@@ -0,0 +1,263 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.Entity.RespondentSketch;
+import com.example.surveyer.Entity.RespondentSketchId;
+import com.example.surveyer.Enum.SketchScope;
+import com.example.surveyer.Repository.RespondentSketchRepository;
+import com.example.surveyer.Repository.SurveyResponseRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * {@link HyperLogLog} sketches of the distinct respondent emails of every survey and of all
+ * surveys of every creator, stored in respondent_sketches. Distinct respondents, also across
+ * any set of surveys, are then estimated by merging a few fixed-size sketches instead of
+ * counting distinct emails over survey_responses.
+ *
+ * <p>Committed submissions are buffered in memory and folded into the stored sketches by a
+ * background flusher every {@code surveyer.sketches.flush-interval}, so a creator's sketch is
+ * written once per interval rather than once per submission. Estimates include the buffered
+ * respondents. Sketches that are missing or whose response count disagrees with the stored
+ * responses (surveys answered before sketches existed, buffers lost in a crash) are rebuilt
+ * at startup.
+ */
+@Service
+public class RespondentSketches implements SmartLifecycle {
+    
+    // 4096 registers: 4 KB per sketch and a relative standard error of 1.6%
+    public static final int PRECISION = 12;
+    
+    @Autowired
+    private RespondentSketchRepository respondentSketchRepository;
+    
+    @Autowired
+    private SurveyResponseRepository surveyResponseRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${surveyer.sketches.flush-interval:PT10S}")
+    private Duration flushInterval;
+    
+    private final Map<RespondentSketchId, Pending> pending = new ConcurrentHashMap<>();
+    
+    // Drained from pending and being written, still counted by estimates until the write commits
+    private volatile Map<RespondentSketchId, Pending> flushing = Map.of();
+    
+    private TransactionTemplate transaction;
+    
+    private volatile boolean running;
+    
+    private Thread flusher;
+    
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Adds the respondents of responses submitted to a survey in the current transaction to the
+     * survey's and its creator's sketches once the transaction commits.
+     */
+    public void recordRespondents(Long surveyId, Long creatorId, Collection<String> emails) {
+        List<String> respondents = List.copyOf(emails);
+        Runnable buffer = () -> {
+            buffer(new RespondentSketchId(SketchScope.SURVEY, surveyId), respondents);
+            buffer(new RespondentSketchId(SketchScope.CREATOR, creatorId), respondents);
+        };
+        TransactionCallbacks.runAfterCommit(buffer);
+    }
+    
+    /**
+     * Sketch of the union of the respondents of the given surveys or creators, stored and
+     * buffered. Owners without respondents contribute nothing.
+     */
+    public HyperLogLog union(SketchScope scope, Collection<Long> ownerIds) {
+        List<RespondentSketchId> ids = ownerIds.stream()
+                .map(ownerId -> new RespondentSketchId(scope, ownerId))
+                .toList();
+        HyperLogLog union = new HyperLogLog(PRECISION);
+        for (RespondentSketch stored : respondentSketchRepository.findAllById(ids)) {
+            HyperLogLog sketch = HyperLogLog.fromBytes(stored.getRegisters());
+            if (sketch.getPrecision() == PRECISION) {
+                union.merge(sketch);
+            }
+        }
+        Map<RespondentSketchId, Pending> inFlight = flushing;
+        for (RespondentSketchId id : ids) {
+            Optional.ofNullable(inFlight.get(id)).ifPresent(additions -> union.merge(additions.sketch));
+            // Read under the entry's lock, as buffering writes to it
+            pending.computeIfPresent(id, (key, additions) -> {
+                union.merge(additions.sketch);
+                return additions;
+            });
+        }
+        return union;
+    }
+    
+    /**
+     * Rebuilds every sketch whose response count disagrees with the stored responses, each in
+     * its own transaction. Called at startup, before submissions are taken, by
+     * {@link com.example.surveyer.config.CounterReconciler}.
+     */
+    public void reconcile() {
+        Map<RespondentSketchId, Long> stored = new HashMap<>();
+        Map<RespondentSketchId, Long> responses = new HashMap<>();
+        transaction.executeWithoutResult(status -> {
+            for (Object[] row : respondentSketchRepository.findResponseCounts()) {
+                stored.put(new RespondentSketchId((SketchScope) row[0], (Long) row[1]), (Long) row[2]);
+            }
+            for (Object[] row : surveyResponseRepository.countGroupedBySurveyId()) {
+                responses.put(new RespondentSketchId(SketchScope.SURVEY, (Long) row[0]), (Long) row[1]);
+            }
+            for (Object[] row : surveyResponseRepository.countGroupedByCreatorId()) {
+                responses.put(new RespondentSketchId(SketchScope.CREATOR, (Long) row[0]), (Long) row[1]);
+            }
+        });
+        
+        Set<RespondentSketchId> ids = new HashSet<>(stored.keySet());
+        ids.addAll(responses.keySet());
+        for (RespondentSketchId id : ids) {
+            if (!Objects.equals(stored.getOrDefault(id, 0L), responses.getOrDefault(id, 0L))) {
+                synchronized (this) {
+                    transaction.executeWithoutResult(status -> rebuild(id));
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::flushPeriodically, "respondent-sketches-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flush();
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Stop after the ingestion drainer, whose last commits are still buffered here
+    @Override
+    public int getPhase() {
+        return -100;
+    }
+    
+    private void buffer(RespondentSketchId id, List<String> emails) {
+        pending.compute(id, (key, additions) -> {
+            Pending result = additions == null ? new Pending() : additions;
+            emails.forEach(result.sketch::add);
+            result.count += emails.size();
+            return result;
+        });
+    }
+    
+    private void flushPeriodically() {
+        while (running) {
+            try {
+                Thread.sleep(flushInterval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+    
+    synchronized void flush() {
+        Map<RespondentSketchId, Pending> drained = new HashMap<>();
+        for (RespondentSketchId id : pending.keySet()) {
+            Pending additions = pending.remove(id);
+            if (additions != null) {
+                drained.put(id, additions);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        
+        flushing = drained;
+        try {
+            transaction.executeWithoutResult(status -> drained.forEach(this::write));
+        } catch (RuntimeException e) {
+            // Keep the additions for the next round
+            drained.forEach((id, additions) -> pending.merge(id, additions, Pending::merge));
+        } finally {
+            flushing = Map.of();
+        }
+    }
+    
+    private void write(RespondentSketchId id, Pending additions) {
+        Optional<RespondentSketch> stored = respondentSketchRepository.findById(id);
+        HyperLogLog sketch = stored.map(row -> HyperLogLog.fromBytes(row.getRegisters())).orElse(null);
+        if (sketch == null || sketch.getPrecision() != PRECISION) {
+            // Built from the stored responses, which already include the additions
+            rebuild(id);
+            return;
+        }
+        sketch.merge(additions.sketch);
+        stored.get().setRegisters(sketch.toBytes());
+        stored.get().setResponseCount(stored.get().getResponseCount() + additions.count);
+    }
+    
+    /**
+     * Recomputes a sketch from the stored responses. Responses committed while it runs may be
+     * counted twice in its response count, which only makes the next startup rebuild it again.
+     */
+    private void rebuild(RespondentSketchId id) {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        long count = 0;
+        try (Stream<String> emails = id.getScope() == SketchScope.SURVEY
+                ? surveyResponseRepository.streamRespondentEmailsBySurveyId(id.getOwnerId())
+                : surveyResponseRepository.streamRespondentEmailsByCreatorId(id.getOwnerId())) {
+            for (Iterator<String> it = emails.iterator(); it.hasNext(); count++) {
+                sketch.add(it.next());
+            }
+        }
+        respondentSketchRepository.save(new RespondentSketch(id.getScope(), id.getOwnerId(), sketch.toBytes(), count));
+    }
+    
+    private static final class Pending {
+        private final HyperLogLog sketch = new HyperLogLog(PRECISION);
+        private long count;
+        
+        Pending merge(Pending other) {
+            sketch.merge(other.sketch);
+            count += other.count;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.Repository.AnswerSelectedOptionRepository;
+import com.example.surveyer.Repository.QuestionOptionRepository;
+import com.example.surveyer.Repository.SurveyResponseRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Per-survey compressed bitmap index from option id to the set of responses that selected it,
+ * with response ids as bit positions. The bitmaps are 64-bit, as response ids come from a
+ * global sequence and outgrow an int. Crosstabs and filtered counts are computed with bitmap
+ * AND/OR and cardinality operations instead of by reading answers.
+ *
+ * <p>A survey's index is built from the answers table on its first query and kept up to date
+ * by committed submissions; the least recently used surveys are evicted past
+ * {@code surveyer.bitmap-index.max-surveys}. Because adding a response is idempotent, the index
+ * is registered before it is built, and submissions committing during the build are not lost.
+ */
+@Service
+public class ResponseBitmapIndex {
+    
+    @Autowired
+    private AnswerSelectedOptionRepository answerSelectedOptionRepository;
+    
+    @Autowired
+    private SurveyResponseRepository surveyResponseRepository;
+    
+    @Autowired
+    private QuestionOptionRepository questionOptionRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${surveyer.bitmap-index.max-surveys:100}")
+    private long maxSurveys;
+    
+    private Cache<Long, SurveyIndex> indexes;
+    
+    private TransactionTemplate readOnlyTransaction;
+    
+    @PostConstruct
+    void init() {
+        indexes = Caffeine.newBuilder()
+                .maximumSize(maxSurveys)
+                .build();
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Adds responses, keyed by response id with their selected option ids, once the current
+     * transaction commits. Surveys without a loaded index are skipped.
+     */
+    public void recordResponses(Long surveyId, Map<Long, List<Long>> selectionsByResponse) {
+        Runnable apply = () -> {
+            SurveyIndex index = indexes.getIfPresent(surveyId);
+            if (index != null) {
+                index.add(selectionsByResponse);
+            }
+        };
+        TransactionCallbacks.runAfterCommit(apply);
+    }
+    
+    public void registerOption(Long surveyId, Long optionId, Long questionId) {
+        SurveyIndex index = indexes.getIfPresent(surveyId);
+        if (index != null) {
+            index.registerOption(optionId, questionId);
+        }
+    }
+    
+    /**
+     * Responses that match the filter: options of the same question are OR'ed, and the
+     * results per question AND'ed. An empty filter matches every response.
+     */
+    public Roaring64Bitmap filter(Long surveyId, Collection<Long> filterOptionIds) {
+        return query(surveyId, index -> index.filter(filterOptionIds));
+    }
+    
+    /**
+     * Number of responses in {@code responses} that selected each option.
+     */
+    public Map<Long, Long> countSelections(Long surveyId, Roaring64Bitmap responses, Collection<Long> optionIds) {
+        return query(surveyId, index -> {
+            Map<Long, Long> counts = new HashMap<>();
+            for (Long optionId : optionIds) {
+                counts.put(optionId, Roaring64Bitmap.andCardinality(index.option(optionId), responses));
+            }
+            return counts;
+        });
+    }
+    
+    /**
+     * Cell counts of responses in {@code responses} that selected both the row and the column
+     * option, indexed as {@code [row][column]}.
+     */
+    public long[][] crosstab(Long surveyId, Roaring64Bitmap responses, List<Long> rowOptionIds, List<Long> columnOptionIds) {
+        return query(surveyId, index -> {
+            long[][] cells = new long[rowOptionIds.size()][columnOptionIds.size()];
+            for (int r = 0; r < rowOptionIds.size(); r++) {
+                Roaring64Bitmap row = Roaring64Bitmap.and(index.option(rowOptionIds.get(r)), responses);
+                for (int c = 0; c < columnOptionIds.size(); c++) {
+                    cells[r][c] = Roaring64Bitmap.andCardinality(row, index.option(columnOptionIds.get(c)));
+                }
+            }
+            return cells;
+        });
+    }
+    
+    private <T> T query(Long surveyId, Function<SurveyIndex, T> query) {
+        SurveyIndex index = indexes.get(surveyId, id -> new SurveyIndex());
+        index.ensureBuilt(surveyId);
+        index.lock.readLock().lock();
+        try {
+            return query.apply(index);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+    
+    private final class SurveyIndex {
+        
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Roaring64Bitmap responses = new Roaring64Bitmap();
+        private final Map<Long, Roaring64Bitmap> byOption = new HashMap<>();
+        private final Map<Long, Long> questionByOption = new ConcurrentHashMap<>();
+        private volatile boolean built;
+        
+        void registerOption(Long optionId, Long questionId) {
+            questionByOption.put(optionId, questionId);
+        }
+        
+        Roaring64Bitmap option(Long optionId) {
+            return byOption.getOrDefault(optionId, new Roaring64Bitmap());
+        }
+        
+        Roaring64Bitmap filter(Collection<Long> filterOptionIds) {
+            Map<Long, Roaring64Bitmap> byQuestion = new HashMap<>();
+            for (Long optionId : filterOptionIds) {
+                Long questionId = questionByOption.get(optionId);
+                if (questionId == null) {
+                    return new Roaring64Bitmap();
+                }
+                byQuestion.computeIfAbsent(questionId, id -> new Roaring64Bitmap()).or(option(optionId));
+            }
+            Roaring64Bitmap result = responses.clone();
+            byQuestion.values().forEach(result::and);
+            return result;
+        }
+        
+        void add(Map<Long, List<Long>> selectionsByResponse) {
+            lock.writeLock().lock();
+            try {
+                selectionsByResponse.forEach(this::addUnlocked);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        private void addUnlocked(Long responseId, List<Long> optionIds) {
+            responses.addLong(responseId);
+            for (Long optionId : optionIds) {
+                byOption.computeIfAbsent(optionId, id -> new Roaring64Bitmap()).addLong(responseId);
+            }
+        }
+        
+        synchronized void ensureBuilt(Long surveyId) {
+            if (built) {
+                return;
+            }
+            
+            // Loaded into separate bitmaps so committing submissions are not held up meanwhile
+            Roaring64Bitmap loadedResponses = new Roaring64Bitmap();
+            Map<Long, Roaring64Bitmap> loadedByOption = new HashMap<>();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                for (Object[] row : questionOptionRepository.findOptionQuestionIdsBySurveyId(surveyId)) {
+                    questionByOption.put((Long) row[0], (Long) row[1]);
+                }
+                try (Stream<Long> responseIds = surveyResponseRepository.streamIdsBySurveyId(surveyId)) {
+                    responseIds.forEach(loadedResponses::addLong);
+                }
+                try (Stream<Object[]> selections = answerSelectedOptionRepository.streamResponseOptionIdsBySurveyId(surveyId)) {
+                    selections.forEach(row -> loadedByOption.computeIfAbsent((Long) row[1], id -> new Roaring64Bitmap())
+                            .addLong((Long) row[0]));
+                }
+            });
+            
+            lock.writeLock().lock();
+            try {
+                responses.or(loadedResponses);
+                responses.runOptimize();
+                loadedByOption.forEach((optionId, bitmap) -> {
+                    Roaring64Bitmap merged = byOption.computeIfAbsent(optionId, id -> new Roaring64Bitmap());
+                    merged.or(bitmap);
+                    merged.runOptimize();
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+            built = true;
+        }
+    }
+}
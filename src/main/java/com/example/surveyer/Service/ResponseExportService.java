@@ -0,0 +1,348 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.Entity.Question;
+import com.example.surveyer.Entity.QuestionOption;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Enum.QuestionType;
+import com.example.surveyer.Repository.QuestionOptionRepository;
+import com.example.surveyer.Repository.QuestionRepository;
+import com.example.surveyer.Repository.SurveyRepository;
+import com.example.surveyer.Repository.SurveyResponseRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Exports of all responses to a survey, as CSV or as an Arrow IPC stream: one row per response,
+ * oldest first, and one column per question in question order. The rows are read in a single
+ * pass over a forward-only cursor and written out as they arrive, so memory use does not depend
+ * on the number of responses.
+ */
+@Service
+public class ResponseExportService {
+    
+    public static final String CSV = "csv";
+    public static final String ARROW = "arrow";
+    
+    // First characters that make spreadsheets read a CSV cell as a formula
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+    
+    @Autowired
+    private SurveyRepository surveyRepository;
+    
+    @Autowired
+    private SurveyResponseRepository surveyResponseRepository;
+    
+    @Autowired
+    private QuestionRepository questionRepository;
+    
+    @Autowired
+    private QuestionOptionRepository questionOptionRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${surveyer.export.arrow-batch-rows:10000}")
+    private int arrowBatchRows;
+    
+    private TransactionTemplate transaction;
+    
+    @PostConstruct
+    void init() {
+        // PostgreSQL only streams with a cursor inside a transaction
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+    }
+    
+    public Survey checkCanExport(Long surveyId, String username) {
+        Optional<Survey> survey = surveyRepository.findById(surveyId);
+        if (survey.isEmpty()) {
+            throw new RuntimeException("Survey not found");
+        }
+        
+        if (!survey.get().getCreatedBy().getUsername().equals(username)) {
+            throw new RuntimeException("Unauthorized to export responses for this survey");
+        }
+        return survey.get();
+    }
+    
+    /**
+     * Writes the responses in the given format, {@link #CSV} or {@link #ARROW}.
+     */
+    public void export(Long surveyId, String format, OutputStream out) throws IOException {
+        switch (format) {
+            case CSV -> exportCsv(surveyId, out);
+            case ARROW -> exportArrow(surveyId, out);
+            default -> throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+    
+    /**
+     * Writes the responses as CSV, with selected options written as their text.
+     */
+    public void exportCsv(Long surveyId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        export(surveyId, (questions, options) -> {
+            writeCell(writer, "response_id");
+            writer.write(',');
+            writeCell(writer, "respondent_email");
+            writer.write(',');
+            writeCell(writer, "submitted_at");
+            for (Question question : questions) {
+                writer.write(',');
+                writeCell(writer, question.getQuestionText());
+            }
+            writer.write("\r\n");
+            
+            Map<Long, String> optionTexts = options.values().stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toMap(QuestionOption::getId, QuestionOption::getOptionText));
+            StringBuilder cell = new StringBuilder();
+            return row -> {
+                writer.write(row.responseId.toString());
+                writer.write(',');
+                writeCell(writer, row.respondentEmail);
+                writer.write(',');
+                if (row.submittedAt != null) {
+                    writer.write(row.submittedAt.toString());
+                }
+                for (Object value : row.values) {
+                    writer.write(',');
+                    cell.setLength(0);
+                    if (value instanceof List<?> optionIds) {
+                        for (Object optionId : optionIds) {
+                            if (!cell.isEmpty()) {
+                                cell.append("; ");
+                            }
+                            cell.append(optionTexts.getOrDefault((Long) optionId, ""));
+                        }
+                    } else if (value instanceof Number number) {
+                        // Not a formula, even when negative
+                        writer.write(number.toString());
+                        continue;
+                    } else if (value != null) {
+                        cell.append(value);
+                    }
+                    writeCell(writer, cell);
+                }
+                writer.write("\r\n");
+            };
+        });
+        writer.flush();
+    }
+    
+    /**
+     * Writes the responses as an Arrow IPC stream with one column per question, named
+     * {@code question_<id>} with the question text in the field metadata: text questions as
+     * strings, RATING and NPS as 32-bit integers, single choice as dictionary-encoded strings and
+     * multiple choice as lists of them, one dictionary of option texts per question. Rows are
+     * written in record batches of {@code surveyer.export.arrow-batch-rows}.
+     */
+    public void exportArrow(Long surveyId, OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        export(surveyId, (questions, options) -> {
+            ArrowStreamWriter.Int64Column responseIds = new ArrowStreamWriter.Int64Column("response_id", false, Map.of());
+            ArrowStreamWriter.Utf8Column emails = new ArrowStreamWriter.Utf8Column("respondent_email", false, Map.of());
+            ArrowStreamWriter.TimestampColumn submittedAts = new ArrowStreamWriter.TimestampColumn("submitted_at", true, Map.of());
+            List<ArrowStreamWriter.Column> columns = new ArrayList<>(List.of(responseIds, emails, submittedAts));
+            for (Question question : questions) {
+                String name = "question_" + question.getId();
+                Map<String, String> metadata = Map.of("question_text", question.getQuestionText());
+                QuestionType type = question.getType() == null ? QuestionType.TEXT : question.getType();
+                columns.add(switch (type) {
+                    case SINGLE_CHOICE -> new ArrowStreamWriter.DictionaryColumn(name, true, metadata, question.getId());
+                    case MULTIPLE_CHOICE -> new ArrowStreamWriter.ListColumn(name, true, metadata, question.getId());
+                    case RATING, NPS -> new ArrowStreamWriter.Int32Column(name, true, metadata);
+                    case TEXT -> new ArrowStreamWriter.Utf8Column(name, true, metadata);
+                });
+            }
+            
+            ArrowStreamWriter writer = new ArrowStreamWriter(buffered, columns);
+            writer.writeSchema();
+            // Each choice question has its own dictionary of option texts, keyed by question id
+            Map<Long, Integer> optionIndexes = new HashMap<>();
+            for (Question question : questions) {
+                if (question.getType() == QuestionType.SINGLE_CHOICE || question.getType() == QuestionType.MULTIPLE_CHOICE) {
+                    List<QuestionOption> dictionary = options.getOrDefault(question.getId(), List.of());
+                    for (int i = 0; i < dictionary.size(); i++) {
+                        optionIndexes.put(dictionary.get(i).getId(), i);
+                    }
+                    writer.writeDictionary(question.getId(), dictionary.stream().map(QuestionOption::getOptionText).toList());
+                }
+            }
+            
+            return new RowWriter() {
+                @Override
+                public void write(ExportRow row) throws IOException {
+                    responseIds.add(row.responseId);
+                    emails.add(row.respondentEmail);
+                    submittedAts.add(row.submittedAt);
+                    for (int i = 0; i < row.values.length; i++) {
+                        Object value = row.values[i];
+                        ArrowStreamWriter.Column column = columns.get(i + 3);
+                        if (column instanceof ArrowStreamWriter.DictionaryColumn choice) {
+                            choice.add(value instanceof List<?> optionIds && !optionIds.isEmpty()
+                                    ? optionIndexes.get((Long) optionIds.get(0)) : null);
+                        } else if (column instanceof ArrowStreamWriter.ListColumn choices) {
+                            choices.add(value instanceof List<?> optionIds
+                                    ? optionIds.stream().map(optionId -> optionIndexes.get((Long) optionId)).toList() : null);
+                        } else if (column instanceof ArrowStreamWriter.Int32Column number) {
+                            number.add(value instanceof Integer integer ? integer : null);
+                        } else {
+                            ((ArrowStreamWriter.Utf8Column) column).add(value == null || value instanceof List ? null : value.toString());
+                        }
+                    }
+                    writer.endRow();
+                    if (writer.getRowCount() == arrowBatchRows) {
+                        writer.writeBatch();
+                    }
+                }
+                
+                @Override
+                public void finish() throws IOException {
+                    writer.close();
+                }
+            };
+        });
+        buffered.flush();
+    }
+    
+    /**
+     * Reads the survey's questions, with their options, and then all responses in one pass over
+     * a forward-only cursor inside a read-only transaction, handing every response to the row
+     * writer as soon as its last row is read.
+     */
+    private void export(Long surveyId, ExportFormat format) throws IOException {
+        try {
+            transaction.executeWithoutResult(status -> {
+                try {
+                    readRows(surveyId, format);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void readRows(Long surveyId, ExportFormat format) throws IOException {
+        List<Question> questions = questionRepository.findBySurveyIdOrderByQuestionOrderAsc(surveyId);
+        Map<Long, Integer> columns = new HashMap<>();
+        questions.forEach(question -> columns.put(question.getId(), columns.size()));
+        Map<Long, List<QuestionOption>> options = questions.isEmpty() ? Map.of()
+                : questionOptionRepository.findByQuestionIdIn(columns.keySet()).stream()
+                        .sorted(Comparator.comparing(QuestionOption::getId))
+                        .collect(Collectors.groupingBy(option -> option.getQuestion().getId()));
+        RowWriter rowWriter = format.start(questions, options);
+        
+        ExportRow current = null;
+        try (Stream<Object[]> rows = surveyResponseRepository.streamExportRowsBySurveyId(surveyId)) {
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] row = it.next();
+                if (current == null || !current.responseId.equals(row[0])) {
+                    if (current != null) {
+                        rowWriter.write(current);
+                    }
+                    current = new ExportRow((Long) row[0], (String) row[1], (LocalDateTime) row[2], new Object[questions.size()]);
+                }
+                
+                Integer column = row[3] == null ? null : columns.get((Long) row[3]);
+                if (column == null) {
+                    continue;
+                }
+                if (row[6] != null) {
+                    // One row per selected option of a choice answer
+                    if (current.values[column] == null) {
+                        current.values[column] = new ArrayList<Long>();
+                    }
+                    ((List<Long>) current.values[column]).add((Long) row[6]);
+                } else if (row[5] != null) {
+                    current.values[column] = row[5];
+                } else if (row[4] != null) {
+                    current.values[column] = row[4];
+                }
+            }
+        }
+        if (current != null) {
+            rowWriter.write(current);
+        }
+        rowWriter.finish();
+    }
+    
+    /**
+     * RFC 4180: quotes cells containing separators, quotes or line breaks, doubling the quotes.
+     * Cells starting with {@code =}, {@code +}, {@code -}, {@code @}, tab or carriage return are
+     * prefixed with {@code '}, so spreadsheets show respondent input as text instead of
+     * evaluating it as a formula (CSV injection).
+     */
+    private static void writeCell(Writer writer, CharSequence value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean formula = !value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            if (formula) {
+                writer.write('\'');
+            }
+            writer.append(value);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+    
+    // A response with its answer values by question column: text, number or selected option ids
+    private record ExportRow(Long responseId, String respondentEmail, LocalDateTime submittedAt, Object[] values) {
+    }
+    
+    private interface ExportFormat {
+        // Options by question id, in id order
+        RowWriter start(List<Question> questions, Map<Long, List<QuestionOption>> options) throws IOException;
+    }
+    
+    private interface RowWriter {
+        void write(ExportRow row) throws IOException;
+        
+        default void finish() throws IOException {
+        }
+    }
+}
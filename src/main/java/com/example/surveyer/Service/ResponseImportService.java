@@ -0,0 +1,135 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.ImportLineResultDTO;
+import com.example.surveyer.DTO.SurveyResponseDTO;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Repository.SurveyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bulk import of responses collected offline, one JSON submission per line. The body is read
+ * line by line and persisted in chunks, each chunk in its own transaction through
+ * {@link SurveyResponseService#importBatch}, so memory use does not depend on the file size.
+ * A result line is written back for every input line as soon as its chunk commits.
+ */
+@Service
+public class ResponseImportService {
+    
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+    public static final String INVALID = "INVALID";
+    
+    @Autowired
+    private SurveyResponseService surveyResponseService;
+    
+    @Autowired
+    private SurveyRepository surveyRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${surveyer.import.batch-size:1000}")
+    private int batchSize;
+    
+    private ObjectReader lineReader;
+    
+    @PostConstruct
+    void init() {
+        lineReader = objectMapper.readerFor(SurveyResponseDTO.class);
+    }
+    
+    public void checkCanImport(Long surveyId, String username) {
+        Optional<Survey> survey = surveyRepository.findById(surveyId);
+        if (survey.isEmpty()) {
+            throw new RuntimeException("Survey not found");
+        }
+        
+        if (!survey.get().getCreatedBy().getUsername().equals(username)) {
+            throw new RuntimeException("Unauthorized to import responses for this survey");
+        }
+    }
+    
+    public void importResponses(Long surveyId, InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<Long> lineNumbers = new ArrayList<>(batchSize);
+        List<SurveyResponseDTO> chunk = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            
+            SurveyResponseDTO responseDTO;
+            try {
+                responseDTO = lineReader.readValue(line);
+            } catch (IOException e) {
+                write(out, new ImportLineResultDTO(lineNumber, INVALID, null, "Malformed JSON"));
+                continue;
+            }
+            if (responseDTO.getSurveyId() != null && !responseDTO.getSurveyId().equals(surveyId)) {
+                write(out, new ImportLineResultDTO(lineNumber, REJECTED, null, "Response belongs to another survey"));
+                continue;
+            }
+            responseDTO.setSurveyId(surveyId);
+            
+            lineNumbers.add(lineNumber);
+            chunk.add(responseDTO);
+            if (chunk.size() == batchSize) {
+                commit(lineNumbers, chunk, out);
+                lineNumbers.clear();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            commit(lineNumbers, chunk, out);
+        }
+        out.flush();
+    }
+    
+    private void commit(List<Long> lineNumbers, List<SurveyResponseDTO> chunk, OutputStream out) throws IOException {
+        List<SubmissionOutcome> outcomes;
+        try {
+            outcomes = surveyResponseService.importBatch(chunk);
+        } catch (RuntimeException e) {
+            // The chunk failed as a whole; retry one by one so a single bad line only fails itself
+            outcomes = new ArrayList<>(chunk.size());
+            for (SurveyResponseDTO responseDTO : chunk) {
+                try {
+                    outcomes.addAll(surveyResponseService.importBatch(List.of(responseDTO)));
+                } catch (RuntimeException single) {
+                    outcomes.add(SubmissionOutcome.rejected(single.getMessage()));
+                }
+            }
+        }
+        
+        for (int i = 0; i < outcomes.size(); i++) {
+            SubmissionOutcome outcome = outcomes.get(i);
+            write(out, outcome.isAccepted()
+                    ? new ImportLineResultDTO(lineNumbers.get(i), CREATED, outcome.responseId(), null)
+                    : new ImportLineResultDTO(lineNumbers.get(i), REJECTED, null, outcome.error()));
+        }
+        out.flush();
+    }
+    
+    private void write(OutputStream out, ImportLineResultDTO result) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.SubmissionReceiptDTO;
+import com.example.surveyer.DTO.SurveyResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in write-behind mode for survey submissions. Requests are validated, queued in a bounded
+ * in-memory queue and acknowledged with a receipt id; a single drainer thread group-commits the
+ * queue in batches through {@link SurveyResponseService#submitBatch}. A full queue rejects new
+ * submissions instead of blocking, and on shutdown the queue is drained before the database goes
+ * away.
+ */
+@Service
+public class ResponseIngestionService implements SmartLifecycle {
+    
+    public static final String QUEUED = "QUEUED";
+    public static final String COMMITTED = "COMMITTED";
+    public static final String REJECTED = "REJECTED";
+    
+    @Autowired
+    private SurveyResponseService surveyResponseService;
+    
+    @Autowired
+    private SurveySnapshotCache surveySnapshotCache;
+    
+    @Value("${surveyer.ingestion.async-enabled:false}")
+    private boolean enabled;
+    
+    @Value("${surveyer.ingestion.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${surveyer.ingestion.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${surveyer.ingestion.receipt-ttl:PT1H}")
+    private Duration receiptTtl;
+    
+    private BlockingQueue<PendingSubmission> queue;
+    
+    private Cache<String, SubmissionReceiptDTO> receipts;
+    
+    private volatile boolean running;
+    
+    private Thread drainer;
+    
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        receipts = Caffeine.newBuilder()
+                .maximumSize(queueCapacity * 10L)
+                .expireAfterWrite(receiptTtl)
+                .build();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Queues a submission. Returns empty when the queue is full so the caller can push back.
+     */
+    public Optional<SubmissionReceiptDTO> enqueue(SurveyResponseDTO responseDTO) {
+        if (!enabled || !running) {
+            throw new IllegalStateException("Asynchronous ingestion is not available");
+        }
+        if (responseDTO.getRespondentEmail() == null) {
+            throw new RuntimeException("Respondent email is required");
+        }
+        if (responseDTO.getSurveyId() == null || surveySnapshotCache.getPublishedSurvey(responseDTO.getSurveyId()).isEmpty()) {
+            throw new RuntimeException("Survey not found or inactive");
+        }
+        
+        SubmissionReceiptDTO receipt = new SubmissionReceiptDTO(UUID.randomUUID().toString(), QUEUED, null, null);
+        receipts.put(receipt.getReceiptId(), receipt);
+        if (!queue.offer(new PendingSubmission(receipt.getReceiptId(), responseDTO))) {
+            receipts.invalidate(receipt.getReceiptId());
+            return Optional.empty();
+        }
+        return Optional.of(receipt);
+    }
+    
+    public Optional<SubmissionReceiptDTO> getReceipt(String receiptId) {
+        return Optional.ofNullable(receipts.getIfPresent(receiptId));
+    }
+    
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::drain, "response-ingestion-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        if (drainer != null) {
+            try {
+                drainer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Stop after the web server has stopped accepting requests, but before the DataSource closes
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+    
+    private void drain() {
+        List<PendingSubmission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSubmission first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void commit(List<PendingSubmission> batch) {
+        try {
+            record(batch, surveyResponseService.submitBatch(batch.stream().map(PendingSubmission::response).toList()));
+        } catch (RuntimeException e) {
+            // The group commit failed as a whole; retry one by one so a single bad submission
+            // only fails itself
+            for (PendingSubmission submission : batch) {
+                try {
+                    record(List.of(submission), surveyResponseService.submitBatch(List.of(submission.response())));
+                } catch (RuntimeException single) {
+                    receipts.put(submission.receiptId(),
+                            new SubmissionReceiptDTO(submission.receiptId(), REJECTED, null, single.getMessage()));
+                }
+            }
+        }
+    }
+    
+    private void record(List<PendingSubmission> batch, List<SubmissionOutcome> outcomes) {
+        for (int i = 0; i < batch.size(); i++) {
+            String receiptId = batch.get(i).receiptId();
+            SubmissionOutcome outcome = outcomes.get(i);
+            receipts.put(receiptId, outcome.isAccepted()
+                    ? new SubmissionReceiptDTO(receiptId, COMMITTED, outcome.responseId(), null)
+                    : new SubmissionReceiptDTO(receiptId, REJECTED, null, outcome.error()));
+        }
+    }
+    
+    private record PendingSubmission(String receiptId, SurveyResponseDTO response) {
+    }
+}
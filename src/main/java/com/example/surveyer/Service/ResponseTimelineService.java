@@ -0,0 +1,204 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.ResponseTimelineDTO;
+import com.example.surveyer.DTO.TimelineBucketDTO;
+import com.example.surveyer.Entity.ResponseRollup;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Enum.TimeGranularity;
+import com.example.surveyer.Repository.ResponseRollupRepository;
+import com.example.surveyer.Repository.SurveyRepository;
+import com.example.surveyer.Repository.SurveyResponseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Response counts per survey per minute, hour and day, so a timeline reads a bounded range
+ * of rollup rows instead of every response. Submissions add to the buckets of their
+ * {@code submittedAt}, which for imports may lie in the past. With
+ * {@code surveyer.live-counters.write-behind=true} the additions are buffered per minute and
+ * written by the live counters' flusher; whatever is lost in a crash is repaired at startup.
+ */
+@Service
+@Transactional
+public class ResponseTimelineService {
+    
+    // Upper bound on the buckets of one timeline, which keeps the response size bounded too
+    private static final long MAX_BUCKETS = 5000;
+    
+    @Autowired
+    private ResponseRollupRepository responseRollupRepository;
+    
+    @Autowired
+    private SurveyResponseRepository surveyResponseRepository;
+    
+    @Autowired
+    private SurveyRepository surveyRepository;
+    
+    @Value("${surveyer.live-counters.write-behind:false}")
+    private boolean writeBehind;
+    
+    // Unwritten additions per survey and minute (write-behind only)
+    private final Map<Long, Map<LocalDateTime, LongAdder>> pending = new ConcurrentHashMap<>();
+    
+    @Transactional(readOnly = true)
+    public ResponseTimelineDTO getTimeline(Long surveyId, String username, TimeGranularity granularity,
+                                           LocalDateTime from, LocalDateTime to) {
+        getOwnedSurvey(surveyId, username);
+        
+        // Whole buckets only: the end is rounded up, the start down
+        LocalDateTime end = to == null
+                ? granularity.plus(granularity.bucketOf(LocalDateTime.now()), 1)
+                : granularity.bucketOf(to).equals(to) ? to : granularity.plus(granularity.bucketOf(to), 1);
+        LocalDateTime start = from == null
+                ? granularity.plus(end, -granularity.getDefaultBuckets())
+                : granularity.bucketOf(from);
+        if (!start.isBefore(end)) {
+            throw new RuntimeException("Range is empty");
+        }
+        long bucketCount = granularity.bucketsBetween(start, end);
+        if (bucketCount > MAX_BUCKETS) {
+            throw new RuntimeException("Range has too many buckets for this granularity");
+        }
+        
+        Map<LocalDateTime, Long> counts = responseRollupRepository.findRange(surveyId, granularity, start, end)
+                .stream()
+                .collect(Collectors.toMap(ResponseRollup::getBucketStart, ResponseRollup::getCount));
+        
+        // Buckets without responses are reported as zero
+        List<TimelineBucketDTO> buckets = new ArrayList<>((int) bucketCount);
+        long total = 0;
+        for (LocalDateTime bucket = start; bucket.isBefore(end); bucket = granularity.plus(bucket, 1)) {
+            long count = counts.getOrDefault(bucket, 0L);
+            buckets.add(new TimelineBucketDTO(bucket, count));
+            total += count;
+        }
+        return new ResponseTimelineDTO(surveyId, granularity, start, end, total, buckets);
+    }
+    
+    /**
+     * Counts responses submitted in the current transaction at the given times. Unless
+     * write-behind is on, the rollups are updated right away, one statement per distinct minute.
+     */
+    public void recordSubmissions(Long surveyId, Collection<LocalDateTime> submittedAt) {
+        Map<LocalDateTime, Long> byMinute = submittedAt.stream()
+                .collect(Collectors.groupingBy(TimeGranularity.MINUTE::bucketOf, Collectors.counting()));
+        
+        if (!writeBehind) {
+            byMinute.forEach((minute, delta) -> addResponses(surveyId, minute, delta));
+            return;
+        }
+        
+        Runnable buffer = () -> addPending(Map.of(surveyId, byMinute));
+        TransactionCallbacks.runAfterCommit(buffer);
+    }
+    
+    /**
+     * Removes and returns the buffered additions, per survey and minute.
+     */
+    public Map<Long, Map<LocalDateTime, Long>> drainPending() {
+        Map<Long, Map<LocalDateTime, Long>> drained = new HashMap<>();
+        pending.forEach((surveyId, minutes) -> minutes.forEach((minute, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                drained.computeIfAbsent(surveyId, id -> new HashMap<>()).put(minute, delta);
+            }
+        }));
+        return drained;
+    }
+    
+    // Buffers additions for the next flush, also to put back those whose write failed
+    public void addPending(Map<Long, Map<LocalDateTime, Long>> additions) {
+        additions.forEach((surveyId, minutes) -> minutes.forEach((minute, delta) ->
+                pending.computeIfAbsent(surveyId, id -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(minute, m -> new LongAdder())
+                        .add(delta)));
+    }
+    
+    public void write(Map<Long, Map<LocalDateTime, Long>> additions) {
+        additions.forEach((surveyId, minutes) -> minutes.forEach((minute, delta) -> addResponses(surveyId, minute, delta)));
+    }
+    
+    public void rebuild(Long surveyId, String username) {
+        getOwnedSurvey(surveyId, username);
+        rebuild(surveyId);
+    }
+    
+    /**
+     * Recomputes the survey's rollups from the submission times of its responses. Meant for
+     * backfills and repairs: responses committed while it runs may be counted twice or not at all.
+     * Buffered additions made before the responses are read are among them and dropped; later
+     * ones are kept for the flusher.
+     */
+    public void rebuild(Long surveyId) {
+        Map<LocalDateTime, Long> counted = new HashMap<>();
+        Optional.ofNullable(pending.get(surveyId)).ifPresent(minutes ->
+                minutes.forEach((minute, adder) -> counted.put(minute, adder.sum())));
+        
+        Map<LocalDateTime, Long> byMinute;
+        try (Stream<LocalDateTime> submittedAt = surveyResponseRepository.streamSubmittedAtBySurveyId(surveyId)) {
+            byMinute = submittedAt.collect(Collectors.groupingBy(TimeGranularity.MINUTE::bucketOf, Collectors.counting()));
+        }
+        
+        responseRollupRepository.deleteBySurveyId(surveyId);
+        byMinute.forEach((minute, delta) -> addResponses(surveyId, minute, delta));
+        
+        addPending(Map.of(surveyId, counted.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> -entry.getValue()))));
+    }
+    
+    /**
+     * Surveys whose day buckets disagree with their response count: surveys answered before
+     * rollups existed and write-behind additions lost in a crash. Called at startup, before
+     * submissions are taken, by {@link com.example.surveyer.config.CounterReconciler}, which
+     * rebuilds each of them.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findSurveysToReconcile() {
+        Map<Long, Long> rolledUp = responseRollupRepository.sumDaysGroupedBySurveyId()
+                .stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> ((Number) row[1]).longValue()));
+        Map<Long, Long> responses = surveyResponseRepository.countGroupedBySurveyId()
+                .stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+        
+        Set<Long> surveyIds = new HashSet<>(rolledUp.keySet());
+        surveyIds.addAll(responses.keySet());
+        return surveyIds.stream()
+                .filter(surveyId -> !Objects.equals(rolledUp.get(surveyId), responses.get(surveyId)))
+                .toList();
+    }
+    
+    private void addResponses(Long surveyId, LocalDateTime minute, long delta) {
+        responseRollupRepository.addResponses(surveyId, minute,
+                TimeGranularity.HOUR.bucketOf(minute), TimeGranularity.DAY.bucketOf(minute), delta);
+    }
+    
+    private Survey getOwnedSurvey(Long surveyId, String username) {
+        Optional<Survey> survey = surveyRepository.findById(surveyId);
+        if (survey.isEmpty()) {
+            throw new RuntimeException("Survey not found");
+        }
+        
+        if (!survey.get().getCreatedBy().getUsername().equals(username)) {
+            throw new RuntimeException("Unauthorized to view the timeline of this survey");
+        }
+        return survey.get();
+    }
+}
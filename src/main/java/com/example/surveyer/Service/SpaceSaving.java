@@ -0,0 +1,74 @@
+package com.example.surveyer.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving heavy-hitters summary: approximate counts of the most frequent strings in a
+ * stream, in memory bounded by {@code capacity} counters. Every string occurring more than
+ * {@code total / capacity} times is kept, and each reported count overestimates the true
+ * count by at most its {@link Counter#error()}. Not thread-safe.
+ */
+public final class SpaceSaving {
+    
+    public record Counter(String item, long count, long error) {
+    }
+    
+    private static final Comparator<Counter> BY_COUNT = Comparator.comparingLong(Counter::count)
+            .thenComparing(Counter::item);
+    
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    // Same counters ordered by count, so the smallest can be replaced in O(log capacity)
+    private final TreeSet<Counter> byCount = new TreeSet<>(BY_COUNT);
+    private long total;
+    
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    public void add(String item) {
+        total++;
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            replace(counter, new Counter(item, counter.count() + 1, counter.error()));
+        } else if (counters.size() < capacity) {
+            replace(null, new Counter(item, 1, 0));
+        } else {
+            // The newcomer inherits the smallest count as its possible overestimate
+            Counter smallest = byCount.first();
+            counters.remove(smallest.item());
+            replace(smallest, new Counter(item, smallest.count() + 1, smallest.count()));
+        }
+    }
+    
+    /**
+     * The {@code limit} largest counters, most frequent first.
+     */
+    public List<Counter> top(int limit) {
+        List<Counter> top = new ArrayList<>(Math.min(limit, counters.size()));
+        for (Counter counter : byCount.descendingSet()) {
+            if (top.size() == limit) {
+                break;
+            }
+            top.add(counter);
+        }
+        return top;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    private void replace(Counter previous, Counter next) {
+        if (previous != null) {
+            byCount.remove(previous);
+        }
+        byCount.add(next);
+        counters.put(next.item(), next);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.surveyer.Service;
+
+/**
+ * Result of persisting one submission of a batch: either the new response id or the reason
+ * it was rejected.
+ */
+public record SubmissionOutcome(Long responseId, String error) {
+
+    public static SubmissionOutcome accepted(Long responseId) {
+        return new SubmissionOutcome(responseId, null);
+    }
+
+    public static SubmissionOutcome rejected(String error) {
+        return new SubmissionOutcome(null, error);
+    }
+
+    public boolean isAccepted() {
+        return error == null;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.QuestionDTO;
+import com.example.surveyer.DTO.QuestionOptionDTO;
+import com.example.surveyer.DTO.SurveyDTO;
+import com.example.surveyer.Entity.Question;
+import com.example.surveyer.Entity.QuestionOption;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Repository.QuestionOptionRepository;
+import com.example.surveyer.Repository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link SurveyDTO} trees with set-based queries: one query for the questions of the
+ * requested surveys and one for their options, per chunk of {@value #ID_CHUNK_SIZE} ids so the
+ * IN lists stay well below the driver's bind parameter limit. The tree is then assembled in
+ * memory.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SurveyAggregateLoader {
+
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuestionOptionRepository questionOptionRepository;
+
+    public SurveyDTO load(Survey survey) {
+        return loadAll(List.of(survey)).get(0);
+    }
+
+    public List<SurveyDTO> loadAll(List<Survey> surveys) {
+        if (surveys.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> surveyIds = surveys.stream().map(Survey::getId).collect(Collectors.toList());
+        List<Question> questions = inChunks(surveyIds, questionRepository::findBySurveyIdIn);
+        List<QuestionDTO> questionDTOs = loadQuestions(questions);
+
+        Map<Long, List<QuestionDTO>> questionsBySurvey = new HashMap<>();
+        for (int i = 0; i < questions.size(); i++) {
+            questionsBySurvey
+                    .computeIfAbsent(questions.get(i).getSurvey().getId(), id -> new ArrayList<>())
+                    .add(questionDTOs.get(i));
+        }
+
+        return surveys.stream()
+                .map(survey -> convertToDTO(survey, questionsBySurvey.getOrDefault(survey.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    public QuestionDTO loadQuestion(Question question) {
+        return loadQuestions(List.of(question)).get(0);
+    }
+
+    public List<QuestionDTO> loadQuestions(List<Question> questions) {
+        if (questions.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> questionIds = questions.stream().map(Question::getId).collect(Collectors.toList());
+        Map<Long, List<QuestionOptionDTO>> optionsByQuestion = new HashMap<>();
+        for (QuestionOption option : inChunks(questionIds, questionOptionRepository::findByQuestionIdIn)) {
+            optionsByQuestion
+                    .computeIfAbsent(option.getQuestion().getId(), id -> new ArrayList<>())
+                    .add(convertOptionToDTO(option));
+        }
+
+        return questions.stream()
+                .map(question -> convertQuestionToDTO(question, optionsByQuestion.getOrDefault(question.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    // Each survey's questions and each question's options come back in one chunk, in order
+    private <T> List<T> inChunks(List<Long> ids, Function<List<Long>, List<T>> query) {
+        if (ids.size() <= ID_CHUNK_SIZE) {
+            return query.apply(ids);
+        }
+        List<T> results = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            results.addAll(query.apply(ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()))));
+        }
+        return results;
+    }
+
+    private SurveyDTO convertToDTO(Survey survey, List<QuestionDTO> questions) {
+        SurveyDTO dto = new SurveyDTO();
+        dto.setId(survey.getId());
+        dto.setTitle(survey.getTitle());
+        dto.setDescription(survey.getDescription());
+        dto.setIsActive(survey.getIsActive());
+        dto.setCreatedAt(survey.getCreatedAt());
+        dto.setCreatedByUsername(survey.getCreatedBy().getUsername());
+        dto.setVersion(survey.getContentVersion());
+        dto.setQuestions(questions);
+        return dto;
+    }
+
+    private QuestionDTO convertQuestionToDTO(Question question, List<QuestionOptionDTO> options) {
+        QuestionDTO dto = new QuestionDTO();
+        dto.setId(question.getId());
+        dto.setQuestionText(question.getQuestionText());
+        dto.setType(question.getType());
+        dto.setQuestionOrder(question.getQuestionOrder());
+        dto.setMinValue(question.getMinValue());
+        dto.setMaxValue(question.getMaxValue());
+        dto.setOptions(options);
+        return dto;
+    }
+
+    private QuestionOptionDTO convertOptionToDTO(QuestionOption option) {
+        QuestionOptionDTO dto = new QuestionOptionDTO();
+        dto.setId(option.getId());
+        dto.setOptionText(option.getOptionText());
+        return dto;
+    }
+}
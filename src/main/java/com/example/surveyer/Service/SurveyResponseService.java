@@ -2,89 +2,347 @@ package com.example.surveyer.Service;
 
 import com.example.surveyer.DTO.*;
 import com.example.surveyer.Entity.*;
+import com.example.surveyer.Enum.QuestionType;
 import com.example.surveyer.Repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Arrays;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class SurveyResponseService {
     
+    private static final String DUPLICATE_RESPONSE_CONSTRAINT = "uk_survey_responses_survey_email";
+    
+    private static final int ANSWER_CHUNK_SIZE = 1000;
+    
     @Autowired
     private SurveyResponseRepository surveyResponseRepository;
     
     @Autowired
     private AnswerRepository answerRepository;
     
+    @Autowired
+    private AnswerSelectedOptionRepository answerSelectedOptionRepository;
+    
     @Autowired
     private SurveyRepository surveyRepository;
     
     @Autowired
     private QuestionRepository questionRepository;
     
+    @Autowired
+    private RespondentFilter respondentFilter;
+    
+    @Autowired
+    private LiveCounters liveCounters;
+    
+    @Autowired
+    private ResponseBitmapIndex responseBitmapIndex;
+    
+    @Autowired
+    private ResponseTimelineService responseTimelineService;
+    
+    @Autowired
+    private TermFrequencyIndex termFrequencyIndex;
+    
+    @Autowired
+    private RespondentSketches respondentSketches;
+    
+    @Autowired
+    private RatingTallyService ratingTallyService;
+    
     public SurveyResponseDTO submitSurveyResponse(SurveyResponseDTO responseDTO) {
         Optional<Survey> survey = surveyRepository.findActiveById(responseDTO.getSurveyId());
         if (survey.isEmpty()) {
             throw new RuntimeException("Survey not found or inactive");
         }
         
-        // Check if response already exists for this email
-        if (surveyResponseRepository.existsBySurveyAndRespondentEmail(survey.get(), responseDTO.getRespondentEmail())) {
+        // Check if response already exists for this email; only asks the database when the
+        // respondent filter cannot rule it out
+        if (respondentFilter.mightHaveResponded(survey.get().getId(), responseDTO.getRespondentEmail())
+                && surveyResponseRepository.existsBySurveyAndRespondentEmail(survey.get(), responseDTO.getRespondentEmail())) {
             throw new RuntimeException("Response already submitted for this email");
         }
         
+        Map<Long, Question> questions = loadQuestions(survey.get());
+        String invalidAnswer = checkNumericAnswers(questions, responseDTO);
+        if (invalidAnswer != null) {
+            throw new RuntimeException(invalidAnswer);
+        }
+        SurveyResponse savedResponse = persistResponse(survey.get(), questions, responseDTO, null);
+        flushResponses();
+        List<Long> selectedOptionIds = selectedOptionIds(savedResponse);
+        liveCounters.recordSubmissions(survey.get().getId(), 1, selectedOptionIds);
+        responseTimelineService.recordSubmissions(survey.get().getId(), List.of(savedResponse.getSubmittedAt()));
+        respondentSketches.recordRespondents(survey.get().getId(), survey.get().getCreatedBy().getId(),
+                List.of(savedResponse.getRespondentEmail()));
+        Map<Long, Map<Long, String>> texts = new HashMap<>();
+        collectTexts(savedResponse, texts);
+        termFrequencyIndex.recordAnswers(texts);
+        Map<Long, Map<Integer, Long>> ratings = new HashMap<>();
+        collectRatings(savedResponse, ratings);
+        ratingTallyService.recordRatings(ratings);
+        responseBitmapIndex.recordResponses(survey.get().getId(), Map.of(savedResponse.getId(), selectedOptionIds));
+        return convertToDTO(savedResponse, savedResponse.getAnswers());
+    }
+    
+    /**
+     * Persists many submissions in the caller's single transaction. Surveys, questions and
+     * already-used respondent emails are each looked up once per survey in the batch rather
+     * than once per submission. Invalid or duplicate submissions are rejected individually and
+     * do not affect the rest of the batch.
+     */
+    public List<SubmissionOutcome> submitBatch(List<SurveyResponseDTO> responseDTOs) {
+        return persistBatch(responseDTOs, false);
+    }
+    
+    /**
+     * Like {@link #submitBatch} for responses collected offline: their {@code submittedAt} is kept
+     * when present, as long as it is not in the future.
+     */
+    public List<SubmissionOutcome> importBatch(List<SurveyResponseDTO> responseDTOs) {
+        return persistBatch(responseDTOs, true);
+    }
+    
+    private List<SubmissionOutcome> persistBatch(List<SurveyResponseDTO> responseDTOs, boolean keepSubmittedAt) {
+        Map<Long, List<SurveyResponseDTO>> bySurvey = responseDTOs.stream()
+                .filter(dto -> dto.getSurveyId() != null)
+                .collect(Collectors.groupingBy(SurveyResponseDTO::getSurveyId, LinkedHashMap::new, Collectors.toList()));
+        
+        Map<Long, Survey> surveys = new HashMap<>();
+        Map<Long, Map<Long, Question>> questions = new HashMap<>();
+        Map<Long, Set<String>> usedEmails = new HashMap<>();
+        for (Map.Entry<Long, List<SurveyResponseDTO>> entry : bySurvey.entrySet()) {
+            Optional<Survey> survey = surveyRepository.findActiveById(entry.getKey());
+            if (survey.isEmpty()) {
+                continue;
+            }
+            surveys.put(entry.getKey(), survey.get());
+            questions.put(entry.getKey(), loadQuestions(survey.get()));
+            Set<String> emails = entry.getValue().stream()
+                    .map(SurveyResponseDTO::getRespondentEmail)
+                    .filter(Objects::nonNull)
+                    .filter(email -> respondentFilter.mightHaveResponded(entry.getKey(), email))
+                    .collect(Collectors.toSet());
+            usedEmails.put(entry.getKey(), emails.isEmpty() ? new HashSet<>()
+                    : new HashSet<>(surveyResponseRepository.findExistingRespondentEmails(entry.getKey(), emails)));
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<SubmissionOutcome> outcomes = new ArrayList<>(responseDTOs.size());
+        // Accepted responses per survey, with the option ids each selected
+        Map<Long, Map<Long, List<Long>>> accepted = new HashMap<>();
+        Map<Long, List<LocalDateTime>> submittedAt = new HashMap<>();
+        Map<Long, List<String>> respondents = new HashMap<>();
+        Map<Long, Map<Long, String>> texts = new HashMap<>();
+        Map<Long, Map<Integer, Long>> ratings = new HashMap<>();
+        for (SurveyResponseDTO responseDTO : responseDTOs) {
+            Survey survey = surveys.get(responseDTO.getSurveyId());
+            String invalidAnswer = survey == null ? null : checkNumericAnswers(questions.get(survey.getId()), responseDTO);
+            if (survey == null) {
+                outcomes.add(SubmissionOutcome.rejected("Survey not found or inactive"));
+            } else if (responseDTO.getRespondentEmail() == null) {
+                outcomes.add(SubmissionOutcome.rejected("Respondent email is required"));
+            } else if (keepSubmittedAt && responseDTO.getSubmittedAt() != null && responseDTO.getSubmittedAt().isAfter(now)) {
+                outcomes.add(SubmissionOutcome.rejected("Submission time is in the future"));
+            } else if (invalidAnswer != null) {
+                outcomes.add(SubmissionOutcome.rejected(invalidAnswer));
+            } else if (!usedEmails.get(survey.getId()).add(responseDTO.getRespondentEmail())) {
+                outcomes.add(SubmissionOutcome.rejected("Response already submitted for this email"));
+            } else {
+                SurveyResponse savedResponse = persistResponse(survey, questions.get(survey.getId()), responseDTO,
+                        keepSubmittedAt ? responseDTO.getSubmittedAt() : null);
+                accepted.computeIfAbsent(survey.getId(), id -> new HashMap<>())
+                        .put(savedResponse.getId(), selectedOptionIds(savedResponse));
+                submittedAt.computeIfAbsent(survey.getId(), id -> new ArrayList<>()).add(savedResponse.getSubmittedAt());
+                respondents.computeIfAbsent(survey.getId(), id -> new ArrayList<>()).add(savedResponse.getRespondentEmail());
+                collectTexts(savedResponse, texts);
+                collectRatings(savedResponse, ratings);
+                outcomes.add(SubmissionOutcome.accepted(savedResponse.getId()));
+            }
+        }
+        
+        flushResponses();
+        accepted.forEach((surveyId, selections) -> {
+            liveCounters.recordSubmissions(surveyId, selections.size(),
+                    selections.values().stream().flatMap(List::stream).toList());
+            responseTimelineService.recordSubmissions(surveyId, submittedAt.get(surveyId));
+            respondentSketches.recordRespondents(surveyId, surveys.get(surveyId).getCreatedBy().getId(), respondents.get(surveyId));
+            responseBitmapIndex.recordResponses(surveyId, selections);
+        });
+        termFrequencyIndex.recordAnswers(texts);
+        ratingTallyService.recordRatings(ratings);
+        return outcomes;
+    }
+    
+    /**
+     * The survey's questions keyed by id, loaded with their options in one query so answers
+     * and selections can be resolved without a lookup per answer.
+     */
+    Map<Long, Question> loadQuestions(Survey survey) {
+        return questionRepository.findWithOptionsBySurvey(survey)
+                .stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+    }
+    
+    /**
+     * Persists a response and its answers. Ids come from pooled sequences, so nothing is
+     * written until flush, where the answers and their selections go out as JDBC batches.
+     * Answers to questions outside the survey, and selections of options outside the
+     * answered question, are ignored.
+     */
+    SurveyResponse persistResponse(Survey survey, Map<Long, Question> questions, SurveyResponseDTO responseDTO, LocalDateTime submittedAt) {
         SurveyResponse surveyResponse = new SurveyResponse();
-        surveyResponse.setSurvey(survey.get());
+        surveyResponse.setSurvey(survey);
         surveyResponse.setRespondentEmail(responseDTO.getRespondentEmail());
+        surveyResponse.setSubmittedAt(submittedAt); // null means now
         
-        SurveyResponse savedResponse = surveyResponseRepository.save(surveyResponse);
-        
-        // Save answers
         if (responseDTO.getAnswers() != null) {
             for (AnswerDTO answerDTO : responseDTO.getAnswers()) {
-                Optional<Question> question = questionRepository.findById(answerDTO.getQuestionId());
-                if (question.isPresent()) {
+                Question question = questions.get(answerDTO.getQuestionId());
+                if (question != null) {
                     Answer answer = new Answer();
-                    answer.setSurveyResponse(savedResponse);
-                    answer.setQuestion(question.get());
+                    answer.setSurveyResponse(surveyResponse);
+                    answer.setQuestion(question);
                     answer.setAnswerText(answerDTO.getAnswerText());
+                    if (question.getType() != null && question.getType().isNumeric()) {
+                        answer.setNumericValue(answerDTO.getNumericValue());
+                    }
                     
                     // Handle multiple choice selections
                     if (answerDTO.getSelectedOptionIds() != null && !answerDTO.getSelectedOptionIds().isEmpty()) {
-                        String selectedOptions = answerDTO.getSelectedOptionIds().stream()
-                                .map(String::valueOf)
-                                .collect(Collectors.joining(","));
-                        answer.setSelectedOptions(selectedOptions);
+                        Set<Long> selectedIds = new HashSet<>(answerDTO.getSelectedOptionIds());
+                        question.getOptions().stream()
+                                .filter(option -> selectedIds.contains(option.getId()))
+                                .forEach(option -> answer.getSelectedOptions().add(new AnswerSelectedOption(answer, option)));
                     }
                     
-                    answerRepository.save(answer);
+                    surveyResponse.getAnswers().add(answer);
                 }
             }
         }
         
-        return convertToDTO(savedResponse);
+        // Cascades to the answers
+        SurveyResponse savedResponse = surveyResponseRepository.save(surveyResponse);
+        respondentFilter.record(survey.getId(), savedResponse.getRespondentEmail());
+        return savedResponse;
+    }
+    
+    // Option ids selected by the persisted answers of a response
+    private List<Long> selectedOptionIds(SurveyResponse surveyResponse) {
+        return surveyResponse.getAnswers().stream()
+                .flatMap(answer -> answer.getSelectedOptions().stream())
+                .map(selection -> selection.getOption().getId())
+                .toList();
+    }
+    
+    // Free-text answers of a response, added to texts by question id and answer id
+    private void collectTexts(SurveyResponse surveyResponse, Map<Long, Map<Long, String>> texts) {
+        for (Answer answer : surveyResponse.getAnswers()) {
+            if (answer.getQuestion().getType() == QuestionType.TEXT && answer.getAnswerText() != null && !answer.getAnswerText().isBlank()) {
+                texts.computeIfAbsent(answer.getQuestion().getId(), id -> new HashMap<>()).put(answer.getId(), answer.getAnswerText());
+            }
+        }
+    }
+    
+    // Numeric answers of a response, counted into ratings by question id and value
+    private void collectRatings(SurveyResponse surveyResponse, Map<Long, Map<Integer, Long>> ratings) {
+        for (Answer answer : surveyResponse.getAnswers()) {
+            if (answer.getNumericValue() != null) {
+                ratings.computeIfAbsent(answer.getQuestion().getId(), id -> new HashMap<>())
+                        .merge(answer.getNumericValue(), 1L, Long::sum);
+            }
+        }
+    }
+    
+    /**
+     * Why the numeric answers of a submission are invalid, or null when they are all within
+     * their question's range. Unanswered numeric questions are fine.
+     */
+    private String checkNumericAnswers(Map<Long, Question> questions, SurveyResponseDTO responseDTO) {
+        if (responseDTO.getAnswers() == null) {
+            return null;
+        }
+        for (AnswerDTO answerDTO : responseDTO.getAnswers()) {
+            Question question = questions.get(answerDTO.getQuestionId());
+            Integer value = answerDTO.getNumericValue();
+            if (question != null && question.getType() != null && question.getType().isNumeric() && value != null
+                    && (value < question.getMinValue() || value > question.getMaxValue())) {
+                return "Answer to question " + question.getId() + " must be between "
+                        + question.getMinValue() + " and " + question.getMaxValue();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Writes pending responses so that a duplicate the pre-checks missed (a concurrent
+     * submission with the same email) surfaces here, as the same error the pre-checks give.
+     */
+    private void flushResponses() {
+        try {
+            surveyResponseRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMessage() != null && e.getMessage().toLowerCase().contains(DUPLICATE_RESPONSE_CONSTRAINT)) {
+                throw new RuntimeException("Response already submitted for this email");
+            }
+            throw e;
+        }
     }
     
     public List<SurveyResponseDTO> getResponsesBySurvey(Long surveyId, String username) {
-        Optional<Survey> survey = surveyRepository.findById(surveyId);
-        if (survey.isEmpty()) {
-            throw new RuntimeException("Survey not found");
+        checkCanViewResponses(surveyId, username);
+        
+        List<Object[]> rows = surveyResponseRepository.findPageBySurveyId(surveyId, Limit.unlimited());
+        List<SurveyResponseDTO> responses = new ArrayList<>(rows.size());
+        // Answers in chunks, keeping the IN lists short
+        for (int from = 0; from < rows.size(); from += ANSWER_CHUNK_SIZE) {
+            responses.addAll(convertToDTOs(surveyId, rows.subList(from, Math.min(from + ANSWER_CHUNK_SIZE, rows.size()))));
         }
+        return responses;
+    }
+    
+    /**
+     * A page of a survey's responses with their answers, newest first: one query for the
+     * responses and one for all their answers, whatever the page size.
+     */
+    public CursorPageDTO<SurveyResponseDTO> getResponsePage(Long surveyId, String username, String cursor, Integer size) {
+        checkCanViewResponses(surveyId, username);
         
-        if (!survey.get().getCreatedBy().getUsername().equals(username)) {
-            throw new RuntimeException("Unauthorized to view responses for this survey");
+        int pageSize = KeysetCursor.clampPageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Object[]> rows;
+        if (cursor == null) {
+            rows = surveyResponseRepository.findPageBySurveyId(surveyId, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = surveyResponseRepository.findPageBySurveyIdAfter(surveyId, position.timestamp(), position.id(), limit);
         }
         
-        return surveyResponseRepository.findBySurveyIdOrderBySubmittedAtDesc(surveyId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // One extra row was fetched to learn whether another page exists
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Object[] last = rows.get(pageSize - 1);
+            nextCursor = new KeysetCursor((LocalDateTime) last[2], (Long) last[0]).encode();
+        }
+        return new CursorPageDTO<>(convertToDTOs(surveyId, rows), nextCursor);
     }
     
     public Optional<SurveyResponseDTO> getResponseById(Long responseId, String username) {
@@ -101,7 +359,7 @@ public class SurveyResponseService {
     }
     
     public Long getResponseCount(Long surveyId) {
-        return surveyResponseRepository.countBySurveyId(surveyId);
+        return liveCounters.getResponseCount(surveyId);
     }
     
     public List<AnswerDTO> getAnswersByQuestion(Long questionId, String username) {
@@ -114,38 +372,103 @@ public class SurveyResponseService {
             throw new RuntimeException("Unauthorized to view answers for this question");
         }
         
-        return answerRepository.findByQuestionId(questionId)
-                .stream()
-                .map(this::convertAnswerToDTO)
+        List<Answer> answers = answerRepository.findByQuestionId(questionId);
+        Map<Long, List<Long>> selections = loadSelections(answers);
+        return answers.stream()
+                .map(answer -> convertAnswerToDTO(answer, selections.get(answer.getId())))
                 .collect(Collectors.toList());
     }
     
+    private void checkCanViewResponses(Long surveyId, String username) {
+        Optional<Survey> survey = surveyRepository.findById(surveyId);
+        if (survey.isEmpty()) {
+            throw new RuntimeException("Survey not found");
+        }
+        
+        if (!survey.get().getCreatedBy().getUsername().equals(username)) {
+            throw new RuntimeException("Unauthorized to view responses for this survey");
+        }
+    }
+    
+    // Converts (response id, respondent email, submitted at) rows, loading all their answers in one query
+    private List<SurveyResponseDTO> convertToDTOs(Long surveyId, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, SurveyResponseDTO> responses = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            responses.put((Long) row[0], new SurveyResponseDTO((Long) row[0], surveyId, (String) row[1], (LocalDateTime) row[2], new ArrayList<>()));
+        }
+        
+        AnswerDTO answer = null;
+        for (Object[] row : answerRepository.findRowsBySurveyResponseIdIn(responses.keySet())) {
+            // One row per selected option, the rows of an answer next to each other
+            if (answer == null || !answer.getId().equals(row[1])) {
+                answer = new AnswerDTO((Long) row[1], (Long) row[2], (String) row[3], null, (Integer) row[4]);
+                responses.get((Long) row[0]).getAnswers().add(answer);
+            }
+            if (row[5] != null) {
+                if (answer.getSelectedOptionIds() == null) {
+                    answer.setSelectedOptionIds(new ArrayList<>());
+                }
+                answer.getSelectedOptionIds().add((Long) row[5]);
+            }
+        }
+        return new ArrayList<>(responses.values());
+    }
+    
     private SurveyResponseDTO convertToDTO(SurveyResponse surveyResponse) {
+        // Load answers
+        List<Answer> answers = answerRepository.findBySurveyResponse(surveyResponse);
+        return convertToDTO(surveyResponse, answers, loadSelections(answers));
+    }
+    
+    // For a response that was just saved: its selections are still in memory
+    private SurveyResponseDTO convertToDTO(SurveyResponse surveyResponse, List<Answer> answers) {
+        Map<Long, List<Long>> selections = new HashMap<>();
+        for (Answer answer : answers) {
+            selections.put(answer.getId(), answer.getSelectedOptions().stream()
+                    .map(selection -> selection.getOption().getId())
+                    .sorted()
+                    .toList());
+        }
+        return convertToDTO(surveyResponse, answers, selections);
+    }
+    
+    private SurveyResponseDTO convertToDTO(SurveyResponse surveyResponse, List<Answer> answers, Map<Long, List<Long>> selections) {
         SurveyResponseDTO dto = new SurveyResponseDTO();
         dto.setId(surveyResponse.getId());
         dto.setSurveyId(surveyResponse.getSurvey().getId());
         dto.setRespondentEmail(surveyResponse.getRespondentEmail());
         dto.setSubmittedAt(surveyResponse.getSubmittedAt());
-        
-        // Load answers
-        List<Answer> answers = answerRepository.findBySurveyResponse(surveyResponse);
-        dto.setAnswers(answers.stream().map(this::convertAnswerToDTO).collect(Collectors.toList()));
-        
+        dto.setAnswers(answers.stream()
+                .map(answer -> convertAnswerToDTO(answer, selections.get(answer.getId())))
+                .collect(Collectors.toList()));
         return dto;
     }
     
-    private AnswerDTO convertAnswerToDTO(Answer answer) {
+    // Selected option ids by answer id, read in one query rather than one per answer
+    private Map<Long, List<Long>> loadSelections(List<Answer> answers) {
+        if (answers.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<Long>> selections = new HashMap<>();
+        List<Long> answerIds = answers.stream().map(Answer::getId).toList();
+        for (Object[] row : answerSelectedOptionRepository.findOptionIdsByAnswerIdIn(answerIds)) {
+            selections.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+        return selections;
+    }
+    
+    private AnswerDTO convertAnswerToDTO(Answer answer, List<Long> selectedOptionIds) {
         AnswerDTO dto = new AnswerDTO();
         dto.setId(answer.getId());
         dto.setQuestionId(answer.getQuestion().getId());
         dto.setAnswerText(answer.getAnswerText());
+        dto.setNumericValue(answer.getNumericValue());
         
-        // Parse selected options
-        if (answer.getSelectedOptions() != null && !answer.getSelectedOptions().isEmpty()) {
-            List<Long> selectedIds = Arrays.stream(answer.getSelectedOptions().split(","))
-                    .map(Long::valueOf)
-                    .collect(Collectors.toList());
-            dto.setSelectedOptionIds(selectedIds);
+        if (selectedOptionIds != null && !selectedOptionIds.isEmpty()) {
+            dto.setSelectedOptionIds(selectedOptionIds);
         }
         
         return dto;
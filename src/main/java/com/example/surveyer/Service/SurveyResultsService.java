@@ -0,0 +1,270 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.CrosstabDTO;
+import com.example.surveyer.DTO.CrosstabRowDTO;
+import com.example.surveyer.DTO.OptionResultDTO;
+import com.example.surveyer.DTO.QuestionResultDTO;
+import com.example.surveyer.DTO.RatingSummaryDTO;
+import com.example.surveyer.DTO.SurveyResultsDTO;
+import com.example.surveyer.DTO.TermCountDTO;
+import com.example.surveyer.DTO.TermFrequencyDTO;
+import com.example.surveyer.Entity.OptionTally;
+import com.example.surveyer.Entity.Question;
+import com.example.surveyer.Entity.QuestionOption;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Entity.SurveyStats;
+import com.example.surveyer.Enum.QuestionType;
+import com.example.surveyer.Repository.AnswerSelectedOptionRepository;
+import com.example.surveyer.Repository.OptionTallyRepository;
+import com.example.surveyer.Repository.QuestionRepository;
+import com.example.surveyer.Repository.SurveyRepository;
+import com.example.surveyer.Repository.SurveyResponseRepository;
+import com.example.surveyer.Repository.SurveyStatsRepository;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Per-option selection counts. Tally rows are created at zero with each option and kept up to
+ * date by {@link LiveCounters}, so results are read in O(options) instead of by counting
+ * answers. Numeric questions are summarized from {@link RatingTallyService}. Filtered results
+ * and crosstabs are computed on {@link ResponseBitmapIndex}.
+ * Top terms of free-text questions come from {@link TermFrequencyIndex}. {@link #rebuild}
+ * recomputes a survey's tallies and live counters from the answers table.
+ */
+@Service
+@Transactional
+public class SurveyResultsService {
+    
+    @Autowired
+    private OptionTallyRepository optionTallyRepository;
+    
+    @Autowired
+    private AnswerSelectedOptionRepository answerSelectedOptionRepository;
+    
+    @Autowired
+    private QuestionRepository questionRepository;
+    
+    @Autowired
+    private SurveyRepository surveyRepository;
+    
+    @Autowired
+    private SurveyResponseRepository surveyResponseRepository;
+    
+    @Autowired
+    private SurveyStatsRepository surveyStatsRepository;
+    
+    @Autowired
+    private LiveCounters liveCounters;
+    
+    @Autowired
+    private ResponseBitmapIndex responseBitmapIndex;
+    
+    @Autowired
+    private TermFrequencyIndex termFrequencyIndex;
+    
+    @Autowired
+    private RatingTallyService ratingTallyService;
+    
+    @Transactional(readOnly = true)
+    public SurveyResultsDTO getResults(Long surveyId, String username) {
+        return getResults(surveyId, username, List.of());
+    }
+    
+    /**
+     * Results among the responses that selected the filter options (see
+     * {@link ResponseBitmapIndex#filter}); an empty filter gives the overall results. Numeric
+     * questions are only summarized in the overall results, as their tallies are not kept per
+     * response.
+     */
+    @Transactional(readOnly = true)
+    public SurveyResultsDTO getResults(Long surveyId, String username, List<Long> filterOptionIds) {
+        Survey survey = getOwnedSurvey(surveyId, username);
+        List<OptionResultDTO> options = optionTallyRepository.findResultsBySurveyId(surveyId);
+        
+        long totalResponses;
+        if (filterOptionIds.isEmpty()) {
+            // The live counters are ahead of the stored tallies when those are written behind
+            for (OptionResultDTO option : options) {
+                Long liveCount = liveCounters.getSelectionCount(option.getOptionId());
+                if (liveCount != null) {
+                    option.setCount(liveCount);
+                }
+            }
+            totalResponses = liveCounters.getResponseCount(surveyId);
+        } else {
+            Roaring64Bitmap responses = responseBitmapIndex.filter(surveyId, filterOptionIds);
+            Map<Long, Long> counts = responseBitmapIndex.countSelections(surveyId, responses,
+                    options.stream().map(OptionResultDTO::getOptionId).toList());
+            options.forEach(option -> option.setCount(counts.get(option.getOptionId())));
+            totalResponses = responses.getLongCardinality();
+        }
+        
+        Map<Long, List<OptionResultDTO>> optionsByQuestion = options.stream()
+                .collect(Collectors.groupingBy(OptionResultDTO::getQuestionId));
+        
+        List<Question> surveyQuestions = questionRepository.findBySurveyOrderByQuestionOrderAsc(survey);
+        Map<Long, RatingSummaryDTO> ratings = filterOptionIds.isEmpty()
+                ? ratingTallyService.getSummaries(surveyQuestions.stream().filter(this::isNumeric).toList())
+                : Map.of();
+        
+        List<QuestionResultDTO> questions = new ArrayList<>();
+        for (Question question : surveyQuestions) {
+            if (question.getType() == QuestionType.SINGLE_CHOICE || question.getType() == QuestionType.MULTIPLE_CHOICE) {
+                questions.add(new QuestionResultDTO(question.getId(), question.getQuestionText(), question.getType(),
+                        optionsByQuestion.getOrDefault(question.getId(), List.of()), null));
+            } else if (ratings.containsKey(question.getId())) {
+                questions.add(new QuestionResultDTO(question.getId(), question.getQuestionText(), question.getType(),
+                        List.of(), ratings.get(question.getId())));
+            }
+        }
+        
+        return new SurveyResultsDTO(surveyId, totalResponses, questions);
+    }
+    
+    /**
+     * Selections of the row question's options broken down by the column question's options,
+     * among the responses that match the filter.
+     */
+    @Transactional(readOnly = true)
+    public CrosstabDTO getCrosstab(Long surveyId, String username, Long rowQuestionId, Long columnQuestionId,
+                                   List<Long> filterOptionIds) {
+        getOwnedSurvey(surveyId, username);
+        Map<Long, List<OptionResultDTO>> optionsByQuestion = optionTallyRepository.findResultsBySurveyId(surveyId)
+                .stream()
+                .collect(Collectors.groupingBy(OptionResultDTO::getQuestionId));
+        List<OptionResultDTO> rowOptions = optionsByQuestion.get(rowQuestionId);
+        List<OptionResultDTO> columns = optionsByQuestion.get(columnQuestionId);
+        if (rowOptions == null || columns == null) {
+            throw new RuntimeException("Question not found or has no options");
+        }
+        
+        List<Long> rowOptionIds = rowOptions.stream().map(OptionResultDTO::getOptionId).toList();
+        List<Long> columnOptionIds = columns.stream().map(OptionResultDTO::getOptionId).toList();
+        Roaring64Bitmap responses = responseBitmapIndex.filter(surveyId, filterOptionIds);
+        Map<Long, Long> counts = responseBitmapIndex.countSelections(surveyId, responses,
+                Stream.concat(rowOptionIds.stream(), columnOptionIds.stream()).toList());
+        long[][] cells = responseBitmapIndex.crosstab(surveyId, responses, rowOptionIds, columnOptionIds);
+        
+        columns.forEach(column -> column.setCount(counts.get(column.getOptionId())));
+        List<CrosstabRowDTO> rows = new ArrayList<>();
+        for (int r = 0; r < rowOptions.size(); r++) {
+            OptionResultDTO option = rowOptions.get(r);
+            rows.add(new CrosstabRowDTO(option.getOptionId(), option.getOptionText(), counts.get(option.getOptionId()),
+                    Arrays.stream(cells[r]).boxed().toList()));
+        }
+        return new CrosstabDTO(surveyId, rowQuestionId, columnQuestionId, responses.getLongCardinality(), columns, rows);
+    }
+    
+    /**
+     * Most frequent words and two-word phrases in the answers to a free-text question, each
+     * counted once per answer (see {@link TermFrequencyIndex}).
+     */
+    @Transactional(readOnly = true)
+    public TermFrequencyDTO getTopTerms(Long surveyId, String username, Long questionId, int limit) {
+        getOwnedSurvey(surveyId, username);
+        Optional<Question> question = questionRepository.findById(questionId);
+        if (question.isEmpty() || !question.get().getSurvey().getId().equals(surveyId)
+                || question.get().getType() != QuestionType.TEXT) {
+            throw new RuntimeException("Question not found or is not a text question");
+        }
+        
+        TermFrequencyIndex.TermCounts counts = termFrequencyIndex.topTerms(questionId, Math.max(1, Math.min(limit, 100)));
+        return new TermFrequencyDTO(questionId, counts.answerCount(), toTermCounts(counts.words()), toTermCounts(counts.phrases()));
+    }
+    
+    public void initialize(QuestionOption option) {
+        optionTallyRepository.save(new OptionTally(option.getId(), option.getQuestion().getId(),
+                option.getQuestion().getSurvey().getId(), 0L));
+        liveCounters.registerOption(option.getId(), option.getQuestion().getSurvey().getId());
+        responseBitmapIndex.registerOption(option.getQuestion().getSurvey().getId(), option.getId(), option.getQuestion().getId());
+    }
+    
+    public void removeQuestion(Long questionId) {
+        optionTallyRepository.deleteByQuestionId(questionId);
+        termFrequencyIndex.invalidate(List.of(questionId));
+    }
+    
+    public void removeOptions(Collection<Long> optionIds) {
+        if (!optionIds.isEmpty()) {
+            optionTallyRepository.deleteByOptionIdIn(optionIds);
+        }
+    }
+    
+    public void rebuild(Long surveyId, String username) {
+        getOwnedSurvey(surveyId, username);
+        rebuild(surveyId);
+        termFrequencyIndex.invalidate(questionRepository.findBySurveyIdOrderByQuestionOrderAsc(surveyId)
+                .stream()
+                .map(Question::getId)
+                .toList());
+    }
+    
+    /**
+     * Recomputes the survey's tallies and response count from its answers and responses, and
+     * resyncs the live counters results are served from (see {@link LiveCounters#resync}). The
+     * stats and tally rows are locked first, so concurrent submissions either commit before the
+     * recount or wait for the rebuild and then apply their increment on top of it. They are locked
+     * in the order submissions update them, stats before tallies, so the two cannot deadlock. The
+     * rating tallies of numeric questions are recomputed as well (see {@link RatingTallyService#rebuild}).
+     */
+    public void rebuild(Long surveyId) {
+        surveyStatsRepository.insertMissing(surveyId);
+        Optional<SurveyStats> stats = surveyStatsRepository.findBySurveyIdForUpdate(surveyId);
+        optionTallyRepository.deleteOrphans(surveyId);
+        optionTallyRepository.insertMissing(surveyId);
+        List<OptionTally> tallies = optionTallyRepository.findBySurveyIdForUpdate(surveyId);
+        
+        LiveCounters.Recount recount = liveCounters.resync(surveyId, () -> {
+            Map<Long, Long> counts = new HashMap<>();
+            for (Object[] row : answerSelectedOptionRepository.countGroupedByOptionForSurvey(surveyId)) {
+                counts.put((Long) row[0], (Long) row[1]);
+            }
+            return new LiveCounters.Recount(surveyResponseRepository.countBySurveyId(surveyId), counts);
+        });
+        
+        // Managed entities; changed counts are written as one batch on commit
+        for (OptionTally tally : tallies) {
+            tally.setCount(recount.selections().getOrDefault(tally.getOptionId(), 0L));
+        }
+        stats.ifPresent(row -> row.setResponseCount(recount.responses()));
+        
+        questionRepository.findBySurveyIdOrderByQuestionOrderAsc(surveyId)
+                .stream()
+                .filter(this::isNumeric)
+                .forEach(ratingTallyService::rebuild);
+    }
+    
+    private boolean isNumeric(Question question) {
+        return question.getType() != null && question.getType().isNumeric();
+    }
+    
+    private List<TermCountDTO> toTermCounts(List<SpaceSaving.Counter> counters) {
+        return counters.stream()
+                .map(counter -> new TermCountDTO(counter.item(), counter.count(), counter.error()))
+                .toList();
+    }
+    
+    private Survey getOwnedSurvey(Long surveyId, String username) {
+        Optional<Survey> survey = surveyRepository.findById(surveyId);
+        if (survey.isEmpty()) {
+            throw new RuntimeException("Survey not found");
+        }
+        
+        if (!survey.get().getCreatedBy().getUsername().equals(username)) {
+            throw new RuntimeException("Unauthorized to access results for this survey");
+        }
+        return survey.get();
+    }
+}
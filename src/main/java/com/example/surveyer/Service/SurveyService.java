@@ -4,11 +4,15 @@ import com.example.surveyer.DTO.*;
 import com.example.surveyer.Entity.*;
 import com.example.surveyer.Repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,29 +26,49 @@ public class SurveyService {
     private QuestionRepository questionRepository;
     
     @Autowired
-    private QuestionOptionRepository questionOptionRepository;
+    private UsersRepository usersRepository;
     
     @Autowired
-    private UsersRepository usersRepository;
+    private SurveyAggregateLoader surveyAggregateLoader;
+    
+    @Autowired
+    private SurveySnapshotCache surveySnapshotCache;
+    
+    @Autowired
+    private SurveyStatsService surveyStatsService;
     
     public List<SurveyDTO> getAllSurveys() {
-        return surveyRepository.findByIsActiveTrueOrderByCreatedAtDesc()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return surveyAggregateLoader.loadAll(surveyRepository.findByIsActiveTrueOrderByCreatedAtDesc());
     }
     
     public List<SurveyDTO> getSurveysByUser(String username) {
         Optional<Users> user = usersRepository.findByUsername(username);
         if (user.isPresent()) {
-            return surveyRepository.findByCreatedByOrderByCreatedAtDesc(user.get())
-                    .stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            return surveyAggregateLoader.loadAll(surveyRepository.findByCreatedByOrderByCreatedAtDesc(user.get()));
         }
         return List.of();
     }
     
+    public CursorPageDTO<SurveySummaryDTO> getActiveSurveyPage(String cursor, Integer size) {
+        int pageSize = KeysetCursor.clampPageSize(size);
+        return toSummaryPage(findActiveSummaries(cursor, pageSize), pageSize);
+    }
+    
+    public CursorPageDTO<SurveyDTO> getActiveSurveyPageWithQuestions(String cursor, Integer size) {
+        int pageSize = KeysetCursor.clampPageSize(size);
+        return toSurveyPage(toSummaryPage(findActiveSummaries(cursor, pageSize), pageSize));
+    }
+    
+    public CursorPageDTO<SurveySummaryDTO> getSurveyPageByUser(String username, String cursor, Integer size) {
+        int pageSize = KeysetCursor.clampPageSize(size);
+        return toSummaryPage(findSummariesByCreator(username, cursor, pageSize), pageSize);
+    }
+    
+    public CursorPageDTO<SurveyDTO> getSurveyPageByUserWithQuestions(String username, String cursor, Integer size) {
+        int pageSize = KeysetCursor.clampPageSize(size);
+        return toSurveyPage(toSummaryPage(findSummariesByCreator(username, cursor, pageSize), pageSize));
+    }
+    
     public Optional<SurveyDTO> getSurveyById(Long id) {
         return surveyRepository.findById(id)
                 .map(this::convertToDTO);
@@ -55,6 +79,14 @@ public class SurveyService {
                 .map(this::convertToDTO);
     }
     
+    public Optional<Long> getSurveyVersion(Long id) {
+        return surveyRepository.findContentVersionById(id);
+    }
+    
+    public Optional<Long> getActiveSurveyVersion(Long id) {
+        return surveyRepository.findActiveContentVersionById(id);
+    }
+    
     public SurveyDTO createSurvey(SurveyDTO surveyDTO, String username) {
         Optional<Users> user = usersRepository.findByUsername(username);
         if (user.isEmpty()) {
@@ -68,6 +100,7 @@ public class SurveyService {
         survey.setIsActive(true);
         
         Survey savedSurvey = surveyRepository.save(survey);
+        surveyStatsService.initialize(savedSurvey.getId());
         return convertToDTO(savedSurvey);
     }
     
@@ -89,6 +122,7 @@ public class SurveyService {
         }
         
         Survey savedSurvey = surveyRepository.save(survey);
+        markSurveyChanged(savedSurvey);
         return convertToDTO(savedSurvey);
     }
     
@@ -106,6 +140,7 @@ public class SurveyService {
         // Soft delete by setting isActive to false
         survey.setIsActive(false);
         surveyRepository.save(survey);
+        markSurveyChanged(survey);
     }
     
     public SurveyDTO publishSurvey(Long id, String username) {
@@ -127,9 +162,18 @@ public class SurveyService {
         
         survey.setIsActive(true);
         Survey savedSurvey = surveyRepository.save(survey);
+        markSurveyChanged(savedSurvey);
         return convertToDTO(savedSurvey);
     }
     
+    public List<SurveyStatsDTO> getSurveyStats(String username, boolean precomputed) {
+        return surveyStatsService.getStatsForCreator(username, precomputed);
+    }
+    
+    public RespondentCountDTO countRespondents(String username, List<Long> surveyIds, boolean approximate) {
+        return surveyStatsService.countRespondents(username, surveyIds, approximate);
+    }
+    
     public Long getSurveyCount(String username) {
         Optional<Users> user = usersRepository.findByUsername(username);
         if (user.isPresent()) {
@@ -138,40 +182,50 @@ public class SurveyService {
         return 0L;
     }
     
-    private SurveyDTO convertToDTO(Survey survey) {
-        SurveyDTO dto = new SurveyDTO();
-        dto.setId(survey.getId());
-        dto.setTitle(survey.getTitle());
-        dto.setDescription(survey.getDescription());
-        dto.setIsActive(survey.getIsActive());
-        dto.setCreatedAt(survey.getCreatedAt());
-        dto.setCreatedByUsername(survey.getCreatedBy().getUsername());
-        
-        // Load questions
-        List<Question> questions = questionRepository.findBySurveyOrderByQuestionOrderAsc(survey);
-        dto.setQuestions(questions.stream().map(this::convertQuestionToDTO).collect(Collectors.toList()));
-        
-        return dto;
+    // One extra row is fetched to learn whether another page exists
+    private List<SurveySummaryDTO> findActiveSummaries(String cursor, int pageSize) {
+        Limit limit = Limit.of(pageSize + 1);
+        if (cursor == null) {
+            return surveyRepository.findActiveSummaries(limit);
+        }
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        return surveyRepository.findActiveSummariesAfter(position.timestamp(), position.id(), limit);
     }
     
-    private QuestionDTO convertQuestionToDTO(Question question) {
-        QuestionDTO dto = new QuestionDTO();
-        dto.setId(question.getId());
-        dto.setQuestionText(question.getQuestionText());
-        dto.setType(question.getType());
-        dto.setQuestionOrder(question.getQuestionOrder());
-        
-        // Load options
-        List<QuestionOption> options = questionOptionRepository.findByQuestion(question);
-        dto.setOptions(options.stream().map(this::convertOptionToDTO).collect(Collectors.toList()));
-        
-        return dto;
+    private List<SurveySummaryDTO> findSummariesByCreator(String username, String cursor, int pageSize) {
+        Limit limit = Limit.of(pageSize + 1);
+        if (cursor == null) {
+            return surveyRepository.findSummariesByCreator(username, limit);
+        }
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        return surveyRepository.findSummariesByCreatorAfter(username, position.timestamp(), position.id(), limit);
     }
     
-    private QuestionOptionDTO convertOptionToDTO(QuestionOption option) {
-        QuestionOptionDTO dto = new QuestionOptionDTO();
-        dto.setId(option.getId());
-        dto.setOptionText(option.getOptionText());
-        return dto;
+    private CursorPageDTO<SurveySummaryDTO> toSummaryPage(List<SurveySummaryDTO> summaries, int pageSize) {
+        String nextCursor = null;
+        if (summaries.size() > pageSize) {
+            summaries = summaries.subList(0, pageSize);
+            SurveySummaryDTO last = summaries.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(summaries, nextCursor);
+    }
+    
+    private CursorPageDTO<SurveyDTO> toSurveyPage(CursorPageDTO<SurveySummaryDTO> page) {
+        List<Long> ids = page.getItems().stream().map(SurveySummaryDTO::getId).collect(Collectors.toList());
+        Map<Long, Survey> surveysById = surveyRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Survey::getId, Function.identity()));
+        List<Survey> surveys = ids.stream().map(surveysById::get).filter(Objects::nonNull).collect(Collectors.toList());
+        return new CursorPageDTO<>(surveyAggregateLoader.loadAll(surveys), page.getNextCursor());
+    }
+    
+    private void markSurveyChanged(Survey survey) {
+        surveyRepository.incrementContentVersion(survey.getId());
+        surveyRepository.findContentVersionById(survey.getId()).ifPresent(survey::setContentVersion);
+        surveySnapshotCache.invalidate(survey.getId());
+    }
+    
+    private SurveyDTO convertToDTO(Survey survey) {
+        return surveyAggregateLoader.load(survey);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.example.surveyer.Service;
+
+/**
+ * Immutable, pre-serialized JSON representation of a published survey. The bytes are
+ * written to the response as-is and must never be modified.
+ */
+public record SurveySnapshot(Long surveyId, Long version, byte[] json) {
+}
@@ -0,0 +1,102 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.SurveyDTO;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Repository.SurveyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache of published surveys, stored as ready-to-write JSON so public
+ * reads skip both the database and Jackson. Entries are built once per survey (concurrent
+ * misses wait for the same build) and are dropped whenever the survey or its questions change.
+ */
+@Service
+public class SurveySnapshotCache {
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private SurveyAggregateLoader surveyAggregateLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${surveyer.snapshot-cache.max-size:1000}")
+    private int maxSize;
+
+    private Cache<Long, SurveySnapshot> snapshots;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public Optional<SurveySnapshot> getPublishedSurvey(Long surveyId) {
+        return Optional.ofNullable(snapshots.get(surveyId, this::build));
+    }
+
+    /**
+     * Returns the cached snapshot without building one on a miss.
+     */
+    public Optional<SurveySnapshot> peek(Long surveyId) {
+        return Optional.ofNullable(snapshots.getIfPresent(surveyId));
+    }
+
+    /**
+     * Drops the snapshot now and again once the surrounding transaction commits, so a read
+     * racing the mutation cannot re-cache the old content.
+     */
+    public void invalidate(Long surveyId) {
+        snapshots.invalidate(surveyId);
+        TransactionCallbacks.runAfterCommit(() -> snapshots.invalidate(surveyId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<SurveyDTO> surveys = readOnlyTransaction.execute(status ->
+                surveyAggregateLoader.loadAll(surveyRepository.findByIsActiveTrueOrderByCreatedAtDesc(Limit.of(maxSize))));
+        for (SurveyDTO survey : surveys) {
+            snapshots.put(survey.getId(), serialize(survey));
+        }
+    }
+
+    private SurveySnapshot build(Long surveyId) {
+        return readOnlyTransaction.execute(status -> {
+            Optional<Survey> survey = surveyRepository.findActiveById(surveyId);
+            return survey.map(s -> serialize(surveyAggregateLoader.load(s))).orElse(null);
+        });
+    }
+
+    private SurveySnapshot serialize(SurveyDTO survey) {
+        try {
+            return new SurveySnapshot(survey.getId(), survey.getVersion(), objectMapper.writeValueAsBytes(survey));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize survey " + survey.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.RespondentCountDTO;
+import com.example.surveyer.DTO.SurveyStatsDTO;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Entity.SurveyStats;
+import com.example.surveyer.Entity.Users;
+import com.example.surveyer.Enum.SketchScope;
+import com.example.surveyer.Repository.SurveyRepository;
+import com.example.surveyer.Repository.SurveyResponseRepository;
+import com.example.surveyer.Repository.SurveyStatsRepository;
+import com.example.surveyer.Repository.UsersRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@Transactional
+public class SurveyStatsService {
+    
+    // Surveys a single respondent count can span when they are listed explicitly
+    private static final int MAX_SURVEYS = 1000;
+    
+    @Autowired
+    private SurveyRepository surveyRepository;
+    
+    @Autowired
+    private SurveyStatsRepository surveyStatsRepository;
+    
+    @Autowired
+    private SurveyResponseRepository surveyResponseRepository;
+    
+    @Autowired
+    private UsersRepository usersRepository;
+    
+    @Autowired
+    private RespondentSketches respondentSketches;
+    
+    /**
+     * Stats for every survey of a creator in one query. The live path counts from the
+     * responses and questions tables; the precomputed path reads the survey_stats rows
+     * maintained on every write and stays fast for creators with thousands of surveys.
+     */
+    @Transactional(readOnly = true)
+    public List<SurveyStatsDTO> getStatsForCreator(String username, boolean precomputed) {
+        if (precomputed) {
+            return surveyStatsRepository.findByCreator(username);
+        }
+        return surveyRepository.findStatsByCreator(username);
+    }
+    
+    /**
+     * Distinct respondent emails across the given surveys of a creator, or across all their
+     * surveys when none are given. The exact count scans the responses; the approximate count
+     * merges the {@link RespondentSketches} of the surveys (or the creator's own sketch) and
+     * does not grow with the number of responses.
+     */
+    @Transactional(readOnly = true)
+    public RespondentCountDTO countRespondents(String username, Collection<Long> surveyIds, boolean approximate) {
+        Optional<Users> user = usersRepository.findByUsername(username);
+        if (user.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        
+        Set<Long> ids = surveyIds == null ? Set.of() : new HashSet<>(surveyIds);
+        if (ids.size() > MAX_SURVEYS) {
+            throw new RuntimeException("Too many surveys");
+        }
+        List<Survey> surveys = ids.isEmpty() ? List.of() : surveyRepository.findByIdIn(ids);
+        if (surveys.size() != ids.size()) {
+            throw new RuntimeException("Survey not found");
+        }
+        if (surveys.stream().anyMatch(survey -> !survey.getCreatedBy().getUsername().equals(username))) {
+            throw new RuntimeException("Unauthorized to count respondents of this survey");
+        }
+        
+        if (!approximate) {
+            long count = ids.isEmpty()
+                    ? surveyResponseRepository.countDistinctRespondentsByCreator(username)
+                    : surveyResponseRepository.countDistinctRespondentsBySurveyIds(ids);
+            return new RespondentCountDTO(count, false, 0.0, count, count);
+        }
+        
+        HyperLogLog sketch = ids.isEmpty()
+                ? respondentSketches.union(SketchScope.CREATOR, List.of(user.get().getId()))
+                : respondentSketches.union(SketchScope.SURVEY, ids);
+        long estimate = sketch.estimate();
+        double error = sketch.relativeStandardError();
+        return new RespondentCountDTO(estimate, true, error,
+                Math.max(0, Math.round(estimate * (1 - 2 * error))), Math.round(estimate * (1 + 2 * error)));
+    }
+    
+    public void initialize(Long surveyId) {
+        surveyStatsRepository.save(new SurveyStats(surveyId, 0L, 0L));
+    }
+    
+    public void recordResponses(Long surveyId, long delta) {
+        if (surveyStatsRepository.addResponses(surveyId, delta) == 0) {
+            surveyStatsRepository.insertMissing(surveyId);
+        }
+    }
+    
+    public void recordQuestions(Long surveyId, long delta) {
+        if (surveyStatsRepository.addQuestions(surveyId, delta) == 0) {
+            surveyStatsRepository.insertMissing(surveyId);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        surveyStatsRepository.insertMissing();
+    }
+}
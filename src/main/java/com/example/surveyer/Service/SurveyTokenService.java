@@ -1,6 +1,5 @@
 package com.example.surveyer.Service;
 
-import com.example.surveyer.DTO.SurveyDTO;
 import com.example.surveyer.DTO.SurveyResponseDTO;
 import com.example.surveyer.Entity.Survey;
 import com.example.surveyer.Entity.SurveyToken;
@@ -8,6 +7,7 @@ import com.example.surveyer.Repository.SurveyTokenRepository;
 import com.example.surveyer.Repository.SurveyRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -25,11 +25,14 @@ public class SurveyTokenService {
     private SurveyRepository surveyRepository;
     
     @Autowired
-    private SurveyService surveyService;
+    private SurveySnapshotCache surveySnapshotCache;
     
     @Autowired
     private SurveyResponseService surveyResponseService;
     
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
     public String generateTokenForSurvey(Long surveyId, String username) {
         Optional<Survey> survey = surveyRepository.findById(surveyId);
         if (survey.isEmpty()) {
@@ -66,13 +69,13 @@ public class SurveyTokenService {
         return token;
     }
     
-    public Optional<SurveyDTO> getPublicSurvey(String token) {
+    public Optional<SurveySnapshot> getPublicSurvey(String token) {
         Optional<SurveyToken> surveyToken = surveyTokenRepository.findValidToken(token, LocalDateTime.now());
         if (surveyToken.isEmpty()) {
             return Optional.empty();
         }
         
-        return surveyService.getActiveSurveyById(surveyToken.get().getSurvey().getId());
+        return surveySnapshotCache.getPublishedSurvey(surveyToken.get().getSurvey().getId());
     }
     
     public SurveyResponseDTO submitPublicSurveyResponse(String token, SurveyResponseDTO responseDTO) {
@@ -87,6 +90,16 @@ public class SurveyTokenService {
         return surveyResponseService.submitSurveyResponse(responseDTO);
     }
     
+    /**
+     * Idempotent variant for clients that retry: the same key and body return the original
+     * response. Runs outside a transaction so a result is only stored once it has committed.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SurveyResponseDTO submitPublicSurveyResponse(String token, SurveyResponseDTO responseDTO, String idempotencyKey) {
+        return idempotencyStore.execute("token:" + token, idempotencyKey, responseDTO,
+                () -> submitPublicSurveyResponse(token, responseDTO));
+    }
+    
     public void deactivateToken(String token, String username) {
         Optional<SurveyToken> surveyToken = surveyTokenRepository.findByToken(token);
         if (surveyToken.isEmpty()) {
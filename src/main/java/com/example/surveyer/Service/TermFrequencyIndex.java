@@ -0,0 +1,157 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.Repository.AnswerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Per-question top words and two-word phrases of free-text answers, each counted once per
+ * answer. Counts live in {@link SpaceSaving} summaries, so memory per question is bounded by
+ * {@code surveyer.term-index.capacity} regardless of the number of answers.
+ *
+ * <p>A question's summaries are built from the stored answers on its first query and kept up
+ * to date by committed submissions; the least recently used questions are evicted past
+ * {@code surveyer.term-index.max-questions}. Answers committed while a build runs are held
+ * back and applied once it finishes, so they are not lost; those the build already read are
+ * skipped by answer id, so they are not counted twice either.
+ */
+@Service
+public class TermFrequencyIndex {
+    
+    @Autowired
+    private AnswerRepository answerRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${surveyer.term-index.max-questions:500}")
+    private long maxQuestions;
+    
+    @Value("${surveyer.term-index.capacity:500}")
+    private int capacity;
+    
+    private Cache<Long, QuestionTerms> indexes;
+    
+    private TransactionTemplate readOnlyTransaction;
+    
+    @PostConstruct
+    void init() {
+        indexes = Caffeine.newBuilder()
+                .maximumSize(maxQuestions)
+                .build();
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Adds free-text answers, keyed by question id and then answer id, once the current
+     * transaction commits. Questions without loaded summaries are skipped.
+     */
+    public void recordAnswers(Map<Long, Map<Long, String>> textsByQuestion) {
+        Runnable apply = () -> textsByQuestion.forEach((questionId, texts) -> {
+            QuestionTerms index = indexes.getIfPresent(questionId);
+            if (index != null) {
+                index.addCommitted(texts);
+            }
+        });
+        TransactionCallbacks.runAfterCommit(apply);
+    }
+    
+    public TermCounts topTerms(Long questionId, int limit) {
+        QuestionTerms index = indexes.get(questionId, id -> new QuestionTerms());
+        index.ensureBuilt(questionId);
+        return index.top(limit);
+    }
+    
+    // Dropped summaries are rebuilt from the stored answers on their next query
+    public void invalidate(Collection<Long> questionIds) {
+        indexes.invalidateAll(questionIds);
+    }
+    
+    public record TermCounts(long answerCount, List<SpaceSaving.Counter> words, List<SpaceSaving.Counter> phrases) {
+    }
+    
+    private final class QuestionTerms {
+        
+        private final Object buildLock = new Object();
+        private SpaceSaving words = new SpaceSaving(capacity);
+        private SpaceSaving phrases = new SpaceSaving(capacity);
+        private long answerCount;
+        private volatile boolean built;
+        // Answers committed while the build reads the table, by answer id; null when no build is running
+        private Map<Long, String> heldBack;
+        
+        synchronized void addCommitted(Map<Long, String> texts) {
+            if (built) {
+                texts.values().forEach(this::add);
+            } else if (heldBack != null) {
+                heldBack.putAll(texts);
+            }
+            // Otherwise the build has yet to start and will read these answers itself
+        }
+        
+        synchronized TermCounts top(int limit) {
+            return new TermCounts(answerCount, words.top(limit), phrases.top(limit));
+        }
+        
+        void ensureBuilt(Long questionId) {
+            if (built) {
+                return;
+            }
+            synchronized (buildLock) {
+                if (built) {
+                    return;
+                }
+                synchronized (this) {
+                    heldBack = new HashMap<>();
+                }
+                
+                // Read without holding the summaries, so committing submissions are not held up.
+                // An answer committing meanwhile may be both read here and held back.
+                QuestionTerms loaded = new QuestionTerms();
+                Roaring64Bitmap readIds = new Roaring64Bitmap();
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<Object[]> texts = answerRepository.streamTextsByQuestionId(questionId)) {
+                        // TRIM only strips spaces; submissions skip any blank text, and so does the build
+                        texts.filter(row -> !((String) row[1]).isBlank()).forEach(row -> {
+                            readIds.addLong((Long) row[0]);
+                            loaded.add((String) row[1]);
+                        });
+                    }
+                });
+                
+                synchronized (this) {
+                    words = loaded.words;
+                    phrases = loaded.phrases;
+                    answerCount = loaded.answerCount;
+                    heldBack.forEach((answerId, text) -> {
+                        if (!readIds.contains(answerId)) {
+                            add(text);
+                        }
+                    });
+                    heldBack = null;
+                    built = true;
+                }
+            }
+        }
+        
+        private void add(String text) {
+            answerCount++;
+            TextTokenizer.terms(text).forEach(words::add);
+            TextTokenizer.phrases(text).forEach(phrases::add);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.surveyer.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits free text into lowercase words for term-frequency analytics. Stop words, single
+ * characters and numbers are dropped; adjacent remaining words form two-word phrases.
+ */
+public final class TextTokenizer {
+    
+    // Longer texts are only tokenized up to here, which bounds the cost of one answer
+    private static final int MAX_TEXT_LENGTH = 10_000;
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "about", "above", "after", "again", "all", "am", "an", "and", "any", "are", "as", "at",
+            "be", "because", "been", "before", "being", "below", "between", "both", "but", "by",
+            "can", "could", "did", "do", "does", "doing", "don", "down", "during", "each", "few", "for",
+            "from", "further", "had", "has", "have", "having", "he", "her", "here", "hers", "him", "his",
+            "how", "i", "if", "in", "into", "is", "it", "its", "itself", "just", "me", "more", "most",
+            "my", "no", "nor", "not", "now", "of", "off", "on", "once", "only", "or", "other", "our",
+            "ours", "out", "over", "own", "same", "she", "should", "so", "some", "such", "than", "that",
+            "the", "their", "them", "then", "there", "these", "they", "this", "those", "through", "to",
+            "too", "under", "until", "up", "very", "was", "we", "were", "what", "when", "where",
+            "which", "while", "who", "whom", "why", "will", "with", "would", "you", "your", "yours");
+    
+    private TextTokenizer() {
+    }
+    
+    /**
+     * Words of the text in order, stop words included, so callers can tell which words were
+     * adjacent; {@code null} marks a dropped word.
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        String lower = text.substring(0, Math.min(text.length(), MAX_TEXT_LENGTH))
+                .toLowerCase(Locale.ROOT)
+                .replace('\u2019', '\'');
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length()
+                    && (Character.isLetterOrDigit(lower.charAt(i)) || (lower.charAt(i) == '\'' && start >= 0));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(keep(lower.substring(start, i)));
+                start = -1;
+            }
+        }
+        return words;
+    }
+    
+    /**
+     * Distinct words of the text, so a term counts once per answer.
+     */
+    public static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : words(text)) {
+            if (word != null) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+    
+    /**
+     * Distinct two-word phrases of the text, made of adjacent kept words.
+     */
+    public static Set<String> phrases(String text) {
+        Set<String> phrases = new LinkedHashSet<>();
+        String previous = null;
+        for (String word : words(text)) {
+            if (previous != null && word != null) {
+                phrases.add(previous + " " + word);
+            }
+            previous = word;
+        }
+        return phrases;
+    }
+    
+    private static String keep(String word) {
+        // Possessives count as their stem ("product's" is "product"); other contractions
+        // ("isn't", "we're") are almost always function words and are dropped
+        String stem = word.endsWith("'s") ? word.substring(0, word.length() - 2) : word;
+        if (stem.indexOf('\'') >= 0 || stem.length() < 2 || STOP_WORDS.contains(stem) || stem.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return stem;
+    }
+}
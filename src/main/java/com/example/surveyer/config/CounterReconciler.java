@@ -0,0 +1,56 @@
+package com.example.surveyer.config;
+
+import com.example.surveyer.Service.RatingTallyService;
+import com.example.surveyer.Service.RespondentSketches;
+import com.example.surveyer.Service.ResponseTimelineService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repairs the response rollups, rating tallies and respondent sketches whose stored counts
+ * disagree with the stored responses, such as write-behind additions lost in a crash. It runs
+ * before the web server and the ingestion drainer start, so no submission can commit between
+ * the check and the rebuild, and each survey, question or sketch is rebuilt in its own
+ * transaction.
+ */
+@Component
+public class CounterReconciler implements SmartLifecycle {
+
+    @Autowired
+    private ResponseTimelineService responseTimelineService;
+
+    @Autowired
+    private RatingTallyService ratingTallyService;
+
+    @Autowired
+    private RespondentSketches respondentSketches;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        for (Long surveyId : responseTimelineService.findSurveysToReconcile()) {
+            responseTimelineService.rebuild(surveyId);
+        }
+        ratingTallyService.findQuestionsToReconcile().forEach(ratingTallyService::rebuild);
+        respondentSketches.reconcile();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Before the live counters and sketches start flushing, and long before the web server
+    @Override
+    public int getPhase() {
+        return -200;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.surveyer.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Idempotent schema and data fix-ups that {@code ddl-auto=update} cannot express. They run
+ * once per startup, right after Hibernate has updated the schema and before anything reads
+ * from it (the live counters rebuild when the context starts), and only against PostgreSQL.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class PostgresMigrations implements InitializingBean {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Set<Long> surveysWithRemovedDuplicates = new HashSet<>();
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        if (!isPostgres()) {
+            return;
+        }
+
+        // answers and survey_responses moved from identity columns to pooled sequences;
+        // make sure the sequences hand out ids above every existing row
+        alignSequence("answers_seq", "answers");
+        alignSequence("survey_responses_seq", "survey_responses");
+
+        migrateSelectedOptions();
+        addUniqueRespondentConstraint();
+
+        // Full-text search over free-text answers (AnswerSearchService). The column is generated
+        // by the database, so it stays in step with answer_text without any application code
+        jdbcTemplate.execute("ALTER TABLE answers ADD COLUMN IF NOT EXISTS answer_tsv tsvector " +
+                "GENERATED ALWAYS AS (to_tsvector('english', coalesce(answer_text, ''))) STORED");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_answers_tsv ON answers USING GIN (answer_tsv)");
+    }
+
+    /**
+     * Surveys that had duplicate responses removed at this startup; their tallies need a recount.
+     */
+    public Set<Long> getSurveysWithRemovedDuplicates() {
+        return surveysWithRemovedDuplicates;
+    }
+
+    // Hibernate only logs a warning when it cannot add uk_survey_responses_survey_email because of
+    // existing duplicates, but the respondent filter and the duplicate reporting rely on it. Keep
+    // the first response of each respondent and add the constraint, or fail the startup
+    private void addUniqueRespondentConstraint() {
+        Integer constraints = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_constraint " +
+                "WHERE conname = 'uk_survey_responses_survey_email'", Integer.class);
+        if (constraints != null && constraints > 0) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE survey_responses IN SHARE ROW EXCLUSIVE MODE");
+            jdbcTemplate.execute("CREATE TEMPORARY TABLE duplicate_responses ON COMMIT DROP AS " +
+                    "SELECT r.id, r.survey_id FROM (SELECT id, survey_id, " +
+                    "row_number() OVER (PARTITION BY survey_id, respondent_email ORDER BY id) AS n FROM survey_responses) r " +
+                    "WHERE r.n > 1");
+            surveysWithRemovedDuplicates.addAll(
+                    jdbcTemplate.queryForList("SELECT DISTINCT survey_id FROM duplicate_responses", Long.class));
+            jdbcTemplate.update("DELETE FROM answer_selected_options WHERE answer_id IN " +
+                    "(SELECT a.id FROM answers a JOIN duplicate_responses d ON d.id = a.survey_response_id)");
+            jdbcTemplate.update("DELETE FROM answers WHERE survey_response_id IN (SELECT id FROM duplicate_responses)");
+            jdbcTemplate.update("DELETE FROM survey_responses WHERE id IN (SELECT id FROM duplicate_responses)");
+            jdbcTemplate.update("UPDATE survey_stats st SET response_count = GREATEST(st.response_count - d.removed, 0) " +
+                    "FROM (SELECT survey_id, COUNT(*) AS removed FROM duplicate_responses GROUP BY survey_id) d " +
+                    "WHERE st.survey_id = d.survey_id");
+            jdbcTemplate.execute("ALTER TABLE survey_responses ADD CONSTRAINT uk_survey_responses_survey_email " +
+                    "UNIQUE (survey_id, respondent_email)");
+        });
+    }
+
+    // answers.selected_options (comma separated option ids) became answer_selected_options;
+    // ids that are not options of the answered question are dropped on the way
+    private void migrateSelectedOptions() {
+        Integer legacyColumns = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = 'answers' AND column_name = 'selected_options'", Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+        jdbcTemplate.execute("INSERT INTO answer_selected_options (answer_id, option_id) " +
+                "SELECT DISTINCT a.id, o.id FROM answers a " +
+                "CROSS JOIN LATERAL unnest(string_to_array(a.selected_options, ',')) AS s(option_id) " +
+                "JOIN question_options o ON o.id::text = trim(s.option_id) AND o.question_id = a.question_id " +
+                "ON CONFLICT DO NOTHING");
+        jdbcTemplate.execute("ALTER TABLE answers DROP COLUMN selected_options");
+    }
+
+    private void alignSequence(String sequence, String table) {
+        jdbcTemplate.execute("SELECT setval('" + sequence + "', m.max_id + 50) " +
+                "FROM (SELECT MAX(id) AS max_id FROM " + table + ") m " +
+                "WHERE m.max_id IS NOT NULL AND (SELECT last_value FROM " + sequence + ") < m.max_id + 50");
+    }
+
+    private boolean isPostgres() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        }
+    }
+}
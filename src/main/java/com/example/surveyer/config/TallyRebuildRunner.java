@@ -0,0 +1,45 @@
+package com.example.surveyer.config;
+
+import com.example.surveyer.Repository.OptionTallyRepository;
+import com.example.surveyer.Repository.SurveyRepository;
+import com.example.surveyer.Service.SurveyResultsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Recomputes option tallies from the answers table at startup: for every survey when started
+ * with {@code --rebuild-tallies}, otherwise only for surveys with options that have no tally
+ * yet (created before tallies existed) and surveys whose duplicate responses were removed by
+ * {@link PostgresMigrations}. Each survey is rebuilt in its own transaction.
+ */
+@Component
+public class TallyRebuildRunner implements ApplicationRunner {
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private OptionTallyRepository optionTallyRepository;
+
+    @Autowired
+    private SurveyResultsService surveyResultsService;
+
+    @Autowired
+    private PostgresMigrations postgresMigrations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Set<Long> surveyIds = new LinkedHashSet<>(args.containsOption("rebuild-tallies")
+                ? surveyRepository.findAllIds()
+                : optionTallyRepository.findSurveyIdsWithUntalliedOptions());
+        surveyIds.addAll(postgresMigrations.getSurveysWithRemovedDuplicates());
+        for (Long surveyId : surveyIds) {
+            surveyResultsService.rebuild(surveyId);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.surveyer.controller;
+
+import com.example.surveyer.DTO.ExportJobDTO;
+import com.example.surveyer.Service.ExportJobService;
+import com.example.surveyer.Service.ResponseExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin(origins = "*")
+public class ExportJobController {
+    
+    // Request attributes through which Tomcat sends a file with sendfile once the handler returns
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    @Autowired
+    private ExportJobService exportJobService;
+    
+    @PostMapping
+    public ResponseEntity<ExportJobDTO> submitExport(@RequestParam Long surveyId,
+                                                     @RequestParam(defaultValue = ResponseExportService.CSV) String format,
+                                                     Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            Optional<ExportJobDTO> job = exportJobService.submit(surveyId, format, username);
+            return job.map(j -> ResponseEntity.status(HttpStatus.ACCEPTED).body(j))
+                    .orElse(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, "10")
+                            .build());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ExportJobDTO> getExport(@PathVariable String jobId, Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            Optional<ExportJobDTO> job = exportJobService.getJob(jobId, username);
+            return job.map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Downloads a completed export. A single byte range is honoured, also conditionally on
+     * If-Range, so an interrupted download can be resumed; the bytes are sent from the file with
+     * sendfile where the server supports it.
+     */
+    @GetMapping("/{jobId}/download")
+    public void downloadExport(@PathVariable String jobId, Authentication authentication,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<ExportJobService.ExportArtifact> found;
+        try {
+            found = exportJobService.getArtifact(jobId, authentication.getName());
+        } catch (RuntimeException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        if (found.isEmpty()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        
+        ExportJobService.ExportArtifact artifact = found.get();
+        long size = artifact.sizeBytes();
+        // Artifacts never change, so the job id identifies their content
+        String etag = "\"" + artifact.jobId() + "\"";
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + artifact.fileName() + "\"");
+        response.setContentType("application/gzip");
+        
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                // A malformed Range header is ignored
+                ranges = List.of();
+            }
+            // Multiple ranges are answered with the whole file
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+                if (start >= size || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if (length == 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, artifact.path().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(artifact.path())) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position <= end; ) {
+                position += file.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package com.example.surveyer.controller;
 
+import com.example.surveyer.DTO.CrosstabDTO;
+import com.example.surveyer.DTO.CursorPageDTO;
+import com.example.surveyer.DTO.RespondentCountDTO;
 import com.example.surveyer.DTO.SurveyDTO;
+import com.example.surveyer.DTO.SurveyResultsDTO;
+import com.example.surveyer.DTO.SurveyStatsDTO;
+import com.example.surveyer.DTO.SurveySummaryDTO;
+import com.example.surveyer.DTO.TermFrequencyDTO;
+import com.example.surveyer.Service.LiveResultsBroadcaster;
+import com.example.surveyer.Service.SurveyResultsService;
 import com.example.surveyer.Service.SurveyService;
+import com.example.surveyer.Service.SurveySnapshot;
+import com.example.surveyer.Service.SurveySnapshotCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +34,15 @@ public class SurveyController {
     @Autowired
     private SurveyService surveyService;
     
+    @Autowired
+    private SurveySnapshotCache surveySnapshotCache;
+    
+    @Autowired
+    private SurveyResultsService surveyResultsService;
+    
+    @Autowired
+    private LiveResultsBroadcaster liveResultsBroadcaster;
+    
     @GetMapping
     public ResponseEntity<List<SurveyDTO>> getAllSurveys() {
         List<SurveyDTO> surveys = surveyService.getAllSurveys();
@@ -32,17 +56,88 @@ public class SurveyController {
         return ResponseEntity.ok(surveys);
     }
     
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<SurveySummaryDTO>> getSurveyPage(@RequestParam(required = false) String cursor,
+                                                                         @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(surveyService.getActiveSurveyPage(cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/page/with-questions")
+    public ResponseEntity<CursorPageDTO<SurveyDTO>> getSurveyPageWithQuestions(@RequestParam(required = false) String cursor,
+                                                                               @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(surveyService.getActiveSurveyPageWithQuestions(cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/my/page")
+    public ResponseEntity<CursorPageDTO<SurveySummaryDTO>> getMySurveyPage(@RequestParam(required = false) String cursor,
+                                                                           @RequestParam(required = false) Integer size,
+                                                                           Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            return ResponseEntity.ok(surveyService.getSurveyPageByUser(username, cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/my/page/with-questions")
+    public ResponseEntity<CursorPageDTO<SurveyDTO>> getMySurveyPageWithQuestions(@RequestParam(required = false) String cursor,
+                                                                                 @RequestParam(required = false) Integer size,
+                                                                                 Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            return ResponseEntity.ok(surveyService.getSurveyPageByUserWithQuestions(username, cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/{id}")
-    public ResponseEntity<SurveyDTO> getSurveyById(@PathVariable Long id) {
+    public ResponseEntity<SurveyDTO> getSurveyById(@PathVariable Long id,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<String> eTag = surveyService.getSurveyVersion(id).map(version -> eTag(id, version));
+            if (eTag.isPresent() && eTagMatches(ifNoneMatch, eTag.get())) {
+                return notModified(eTag.get());
+            }
+        }
+        
         Optional<SurveyDTO> survey = surveyService.getSurveyById(id);
-        return survey.map(ResponseEntity::ok)
+        return survey.map(dto -> ResponseEntity.ok()
+                        .eTag(eTag(id, dto.getVersion()))
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(dto))
                 .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/{id}/public")
-    public ResponseEntity<SurveyDTO> getActiveSurveyById(@PathVariable Long id) {
-        Optional<SurveyDTO> survey = surveyService.getActiveSurveyById(id);
-        return survey.map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> getActiveSurveyById(@PathVariable Long id,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            // A cached snapshot answers the revalidation without touching the database
+            Optional<String> eTag = surveySnapshotCache.peek(id)
+                    .map(SurveySnapshot::version)
+                    .or(() -> surveyService.getActiveSurveyVersion(id))
+                    .map(version -> eTag(id, version));
+            if (eTag.isPresent() && eTagMatches(ifNoneMatch, eTag.get())) {
+                return notModified(eTag.get());
+            }
+        }
+        
+        Optional<SurveySnapshot> survey = surveySnapshotCache.getPublishedSurvey(id);
+        return survey.map(snapshot -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .eTag(eTag(id, snapshot.version()))
+                        .cacheControl(CacheControl.noCache())
+                        .body(snapshot.json()))
                 .orElse(ResponseEntity.notFound().build());
     }
     
@@ -90,10 +185,114 @@ public class SurveyController {
         }
     }
     
+    @GetMapping("/{id}/results")
+    public ResponseEntity<SurveyResultsDTO> getSurveyResults(@PathVariable Long id,
+                                                             @RequestParam(defaultValue = "") List<Long> filterOptionIds,
+                                                             Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            SurveyResultsDTO results = surveyResultsService.getResults(id, username, filterOptionIds);
+            return ResponseEntity.ok(results);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/{id}/results/crosstab")
+    public ResponseEntity<CrosstabDTO> getSurveyCrosstab(@PathVariable Long id,
+                                                         @RequestParam Long rowQuestionId,
+                                                         @RequestParam Long columnQuestionId,
+                                                         @RequestParam(defaultValue = "") List<Long> filterOptionIds,
+                                                         Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            CrosstabDTO crosstab = surveyResultsService.getCrosstab(id, username, rowQuestionId, columnQuestionId, filterOptionIds);
+            return ResponseEntity.ok(crosstab);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/{id}/results/questions/{questionId}/terms")
+    public ResponseEntity<TermFrequencyDTO> getQuestionTopTerms(@PathVariable Long id,
+                                                                @PathVariable Long questionId,
+                                                                @RequestParam(defaultValue = "20") int limit,
+                                                                Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            TermFrequencyDTO terms = surveyResultsService.getTopTerms(id, username, questionId, limit);
+            return ResponseEntity.ok(terms);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping(value = "/{id}/results/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLiveResults(@PathVariable Long id, Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            return ResponseEntity.ok(liveResultsBroadcaster.subscribe(id, username));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping("/{id}/results/rebuild")
+    public ResponseEntity<SurveyResultsDTO> rebuildSurveyResults(@PathVariable Long id, Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            surveyResultsService.rebuild(id, username);
+            return ResponseEntity.ok(surveyResultsService.getResults(id, username));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<List<SurveyStatsDTO>> getMySurveyStats(@RequestParam(defaultValue = "false") boolean precomputed,
+                                                                 Authentication authentication) {
+        String username = authentication.getName();
+        List<SurveyStatsDTO> stats = surveyService.getSurveyStats(username, precomputed);
+        return ResponseEntity.ok(stats);
+    }
+    
+    @GetMapping("/respondents/count")
+    public ResponseEntity<RespondentCountDTO> getRespondentCount(@RequestParam(required = false) List<Long> surveyIds,
+                                                                 @RequestParam(defaultValue = "false") boolean approximate,
+                                                                 Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            return ResponseEntity.ok(surveyService.countRespondents(username, surveyIds, approximate));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/count")
     public ResponseEntity<Long> getSurveyCount(Authentication authentication) {
         String username = authentication.getName();
         Long count = surveyService.getSurveyCount(username);
         return ResponseEntity.ok(count);
     }
-} 
\ No newline at end of file
+    
+    private static String eTag(Long surveyId, Long version) {
+        return "\"" + surveyId + "-" + version + "\"";
+    }
+    
+    private static boolean eTagMatches(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+}
@@ -1,14 +1,31 @@
 package com.example.surveyer.controller;
 
 import com.example.surveyer.DTO.AnswerDTO;
+import com.example.surveyer.DTO.AnswerSearchHitDTO;
+import com.example.surveyer.DTO.CursorPageDTO;
+import com.example.surveyer.DTO.ResponseTimelineDTO;
+import com.example.surveyer.DTO.SubmissionReceiptDTO;
 import com.example.surveyer.DTO.SurveyResponseDTO;
+import com.example.surveyer.Enum.TimeGranularity;
+import com.example.surveyer.Service.AnswerSearchService;
+import com.example.surveyer.Service.IdempotencyStore;
+import com.example.surveyer.Service.ResponseExportService;
+import com.example.surveyer.Service.ResponseImportService;
+import com.example.surveyer.Service.ResponseIngestionService;
+import com.example.surveyer.Service.ResponseTimelineService;
 import com.example.surveyer.Service.SurveyResponseService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,16 +37,66 @@ public class SurveyResponseController {
     @Autowired
     private SurveyResponseService surveyResponseService;
     
+    @Autowired
+    private ResponseIngestionService responseIngestionService;
+    
+    @Autowired
+    private ResponseImportService responseImportService;
+    
+    @Autowired
+    private ResponseExportService responseExportService;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private ResponseTimelineService responseTimelineService;
+    
+    @Autowired
+    private AnswerSearchService answerSearchService;
+    
     @PostMapping("/submit")
-    public ResponseEntity<SurveyResponseDTO> submitSurveyResponse(@RequestBody SurveyResponseDTO responseDTO) {
+    public ResponseEntity<SurveyResponseDTO> submitSurveyResponse(@RequestBody SurveyResponseDTO responseDTO,
+                                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 255)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
         try {
-            SurveyResponseDTO submittedResponse = surveyResponseService.submitSurveyResponse(responseDTO);
+            SurveyResponseDTO submittedResponse = idempotencyKey == null
+                    ? surveyResponseService.submitSurveyResponse(responseDTO)
+                    : idempotencyStore.execute("survey:" + responseDTO.getSurveyId(), idempotencyKey, responseDTO,
+                            () -> surveyResponseService.submitSurveyResponse(responseDTO));
             return ResponseEntity.status(HttpStatus.CREATED).body(submittedResponse);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping("/submit/async")
+    public ResponseEntity<SubmissionReceiptDTO> submitSurveyResponseAsync(@RequestBody SurveyResponseDTO responseDTO) {
+        try {
+            Optional<SubmissionReceiptDTO> receipt = responseIngestionService.enqueue(responseDTO);
+            return receipt.map(r -> ResponseEntity.status(HttpStatus.ACCEPTED).body(r))
+                    .orElse(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    @GetMapping("/receipts/{receiptId}")
+    public ResponseEntity<SubmissionReceiptDTO> getSubmissionReceipt(@PathVariable String receiptId) {
+        Optional<SubmissionReceiptDTO> receipt = responseIngestionService.getReceipt(receiptId);
+        return receipt.map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @GetMapping("/survey/{surveyId}")
     public ResponseEntity<List<SurveyResponseDTO>> getResponsesBySurvey(@PathVariable Long surveyId, Authentication authentication) {
         try {
@@ -41,6 +108,84 @@ public class SurveyResponseController {
         }
     }
     
+    @GetMapping("/survey/{surveyId}/page")
+    public ResponseEntity<CursorPageDTO<SurveyResponseDTO>> getResponsePageBySurvey(@PathVariable Long surveyId,
+                                                                                  @RequestParam(required = false) String cursor,
+                                                                                  @RequestParam(required = false) Integer size,
+                                                                                  Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            return ResponseEntity.ok(surveyResponseService.getResponsePage(surveyId, username, cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping(value = "/survey/{surveyId}/import", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    public void importResponses(@PathVariable Long surveyId, Authentication authentication,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            responseImportService.checkCanImport(surveyId, authentication.getName());
+        } catch (RuntimeException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        
+        response.setContentType("application/x-ndjson");
+        responseImportService.importResponses(surveyId, request.getInputStream(), response.getOutputStream());
+    }
+    
+    @GetMapping("/survey/{surveyId}/export")
+    public void exportResponses(@PathVariable Long surveyId, @RequestParam(defaultValue = "csv") String format,
+                                Authentication authentication, HttpServletResponse response) throws IOException {
+        try {
+            responseExportService.checkCanExport(surveyId, authentication.getName());
+        } catch (RuntimeException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        
+        switch (format) {
+            case "csv" -> {
+                response.setContentType("text/csv;charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"survey-" + surveyId + "-responses.csv\"");
+                responseExportService.exportCsv(surveyId, response.getOutputStream());
+            }
+            case "arrow" -> {
+                response.setContentType("application/vnd.apache.arrow.stream");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"survey-" + surveyId + "-responses.arrows\"");
+                responseExportService.exportArrow(surveyId, response.getOutputStream());
+            }
+            default -> response.setStatus(HttpStatus.BAD_REQUEST.value());
+        }
+    }
+    
+    @GetMapping("/survey/{surveyId}/timeline")
+    public ResponseEntity<ResponseTimelineDTO> getResponseTimeline(@PathVariable Long surveyId,
+                                                                   @RequestParam(defaultValue = "HOUR") TimeGranularity granularity,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                   Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            ResponseTimelineDTO timeline = responseTimelineService.getTimeline(surveyId, username, granularity, from, to);
+            return ResponseEntity.ok(timeline);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping("/survey/{surveyId}/timeline/rebuild")
+    public ResponseEntity<ResponseTimelineDTO> rebuildResponseTimeline(@PathVariable Long surveyId, Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            responseTimelineService.rebuild(surveyId, username);
+            return ResponseEntity.ok(responseTimelineService.getTimeline(surveyId, username, TimeGranularity.HOUR, null, null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @GetMapping("/{responseId}")
     public ResponseEntity<SurveyResponseDTO> getResponseById(@PathVariable Long responseId, Authentication authentication) {
         try {
@@ -69,4 +214,32 @@ public class SurveyResponseController {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    @GetMapping("/question/{questionId}/answers/search")
+    public ResponseEntity<CursorPageDTO<AnswerSearchHitDTO>> searchAnswersByQuestion(@PathVariable Long questionId,
+                                                                                     @RequestParam String q,
+                                                                                     @RequestParam(required = false) String cursor,
+                                                                                     @RequestParam(required = false) Integer size,
+                                                                                     Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            return ResponseEntity.ok(answerSearchService.searchQuestion(questionId, username, q, cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/survey/{surveyId}/answers/search")
+    public ResponseEntity<CursorPageDTO<AnswerSearchHitDTO>> searchAnswersBySurvey(@PathVariable Long surveyId,
+                                                                                   @RequestParam String q,
+                                                                                   @RequestParam(required = false) String cursor,
+                                                                                   @RequestParam(required = false) Integer size,
+                                                                                   Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            return ResponseEntity.ok(answerSearchService.searchSurvey(surveyId, username, q, cursor, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 } 
\ No newline at end of file
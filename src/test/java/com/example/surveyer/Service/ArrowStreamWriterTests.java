@@ -0,0 +1,264 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.Entity.Answer;
+import com.example.surveyer.Entity.AnswerSelectedOption;
+import com.example.surveyer.Entity.Question;
+import com.example.surveyer.Entity.QuestionOption;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Entity.SurveyResponse;
+import com.example.surveyer.Entity.Users;
+import com.example.surveyer.Enum.QuestionType;
+import com.example.surveyer.Enum.UserRole;
+import jakarta.persistence.EntityManager;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Reads the Arrow export back with the Arrow Java library: schema, dictionaries, nulls and a
+ * response set split across several record batches.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "surveyer.export.arrow-batch-rows=2"
+})
+@Import(ResponseExportService.class)
+class ArrowStreamWriterTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_000);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ResponseExportService responseExportService;
+
+    private Long surveyId;
+
+    private Question text;
+    private Question rating;
+    private Question single;
+    private Question multiple;
+
+    @BeforeEach
+    void setUp() {
+        Users user = new Users();
+        user.setUsername("creator");
+        user.setEmail("creator@example.com");
+        user.setPassword("secret");
+        user.setName("Creator");
+        user.setRole(UserRole.CREATOR);
+        entityManager.persist(user);
+
+        Survey survey = new Survey();
+        survey.setTitle("Export");
+        survey.setCreatedBy(user);
+        entityManager.persist(survey);
+        surveyId = survey.getId();
+
+        text = question(survey, "Comments", QuestionType.TEXT, 1);
+        rating = question(survey, "Score", QuestionType.RATING, 2);
+        single = question(survey, "Plan", QuestionType.SINGLE_CHOICE, 3);
+        multiple = question(survey, "Channels", QuestionType.MULTIPLE_CHOICE, 4);
+        List<QuestionOption> plans = options(single, "Free", "Pro");
+        List<QuestionOption> channels = options(multiple, "Email", "Chat", "Phone");
+
+        // Five responses, so batches of two rows end with a partial one; odd ones answer nothing
+        for (int r = 0; r < 5; r++) {
+            SurveyResponse response = new SurveyResponse();
+            response.setSurvey(survey);
+            response.setRespondentEmail("respondent" + r + "@example.com");
+            response.setSubmittedAt(START.plusMinutes(r));
+            entityManager.persist(response);
+            if (r % 2 == 1) {
+                continue;
+            }
+            answer(response, text, "Answer " + r, null);
+            answer(response, rating, null, r + 1);
+            answer(response, single, null, null, plans.get(r == 2 ? 0 : 1));
+            answer(response, multiple, null, null, r == 4 ? List.of() : List.of(channels.get(0), channels.get(2)));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void exportReadsBackWithTheArrowLibrary() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        responseExportService.exportArrow(surveyId, out);
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            Schema schema = root.getSchema();
+            assertEquals(List.of("response_id", "respondent_email", "submitted_at", "question_" + text.getId(),
+                            "question_" + rating.getId(), "question_" + single.getId(), "question_" + multiple.getId()),
+                    schema.getFields().stream().map(Field::getName).toList());
+            assertFalse(schema.findField("response_id").isNullable());
+            assertEquals(new ArrowType.Int(64, true), schema.findField("response_id").getType());
+            assertEquals(new ArrowType.Timestamp(org.apache.arrow.vector.types.TimeUnit.MICROSECOND, null),
+                    schema.findField("submitted_at").getType());
+            assertEquals(new ArrowType.Int(32, true), schema.findField("question_" + rating.getId()).getType());
+            assertEquals(Map.of("question_text", "Plan"), schema.findField("question_" + single.getId()).getMetadata());
+            Field multipleField = schema.findField("question_" + multiple.getId());
+            assertEquals(ArrowType.List.INSTANCE, multipleField.getType());
+            assertEquals(multiple.getId(), multipleField.getChildren().get(0).getDictionary().getId());
+
+            List<Integer> batchSizes = new ArrayList<>();
+            List<Row> rows = new ArrayList<>();
+            while (reader.loadNextBatch()) {
+                batchSizes.add(root.getRowCount());
+                Map<Long, Dictionary> dictionaries = reader.getDictionaryVectors();
+                for (int i = 0; i < root.getRowCount(); i++) {
+                    rows.add(new Row(root, dictionaries, i));
+                }
+            }
+            assertEquals(List.of(2, 2, 1), batchSizes);
+            assertEquals(5, rows.size());
+
+            Row first = rows.get(0);
+            assertEquals("respondent0@example.com", first.email);
+            assertEquals(START, first.submittedAt);
+            assertEquals("Answer 0", first.text);
+            assertEquals(1, first.rating);
+            assertEquals("Pro", first.single);
+            assertEquals(List.of("Email", "Phone"), first.multiple);
+
+            // No answers at all: every question column is null
+            Row second = rows.get(1);
+            assertEquals("respondent1@example.com", second.email);
+            assertNull(second.text);
+            assertNull(second.rating);
+            assertNull(second.single);
+            assertNull(second.multiple);
+
+            Row last = rows.get(4);
+            assertEquals(START.plusMinutes(4), last.submittedAt);
+            assertEquals(5, last.rating);
+            // An answer without selections reads the same as no answer
+            assertNull(last.multiple);
+            assertEquals("Free", rows.get(2).single);
+            assertEquals(5, rows.stream().map(row -> row.responseId).distinct().count());
+        }
+    }
+
+    private Question question(Survey survey, String questionText, QuestionType type, int order) {
+        Question question = new Question();
+        question.setSurvey(survey);
+        question.setQuestionText(questionText);
+        question.setType(type);
+        question.setQuestionOrder(order);
+        if (type == QuestionType.RATING) {
+            question.setMinValue(1);
+            question.setMaxValue(5);
+        }
+        entityManager.persist(question);
+        return question;
+    }
+
+    private List<QuestionOption> options(Question question, String... texts) {
+        List<QuestionOption> options = new ArrayList<>();
+        for (String optionText : texts) {
+            QuestionOption option = new QuestionOption();
+            option.setQuestion(question);
+            option.setOptionText(optionText);
+            entityManager.persist(option);
+            options.add(option);
+        }
+        return options;
+    }
+
+    private Answer answer(SurveyResponse response, Question question, String answerText, Integer numericValue,
+                          QuestionOption... selected) {
+        return answer(response, question, answerText, numericValue, Arrays.asList(selected));
+    }
+
+    private Answer answer(SurveyResponse response, Question question, String answerText, Integer numericValue,
+                          List<QuestionOption> selected) {
+        Answer answer = new Answer();
+        answer.setSurveyResponse(response);
+        answer.setQuestion(question);
+        answer.setAnswerText(answerText);
+        answer.setNumericValue(numericValue);
+        entityManager.persist(answer);
+        selected.forEach(option -> entityManager.persist(new AnswerSelectedOption(answer, option)));
+        return answer;
+    }
+
+    // One exported row, with dictionary indexes resolved to option texts
+    private final class Row {
+        private final long responseId;
+        private final String email;
+        private final LocalDateTime submittedAt;
+        private final String text;
+        private final Integer rating;
+        private final String single;
+        private final List<String> multiple;
+
+        Row(VectorSchemaRoot root, Map<Long, Dictionary> dictionaries, int index) {
+            responseId = ((BigIntVector) root.getVector("response_id")).get(index);
+            email = string((VarCharVector) root.getVector("respondent_email"), index);
+            submittedAt = ((TimeStampMicroVector) root.getVector("submitted_at")).getObject(index);
+            text = string((VarCharVector) root.getVector("question_" + ArrowStreamWriterTests.this.text.getId()), index);
+            rating = ((IntVector) root.getVector("question_" + ArrowStreamWriterTests.this.rating.getId())).getObject(index);
+
+            IntVector singleIndexes = (IntVector) root.getVector("question_" + ArrowStreamWriterTests.this.single.getId());
+            single = singleIndexes.isNull(index) ? null
+                    : dictionaryValue(dictionaries, ArrowStreamWriterTests.this.single.getId(), singleIndexes.get(index));
+
+            ListVector lists = (ListVector) root.getVector("question_" + ArrowStreamWriterTests.this.multiple.getId());
+            if (lists.isNull(index)) {
+                multiple = null;
+            } else {
+                IntVector items = (IntVector) lists.getDataVector();
+                List<String> values = new ArrayList<>();
+                for (int i = lists.getElementStartIndex(index); i < lists.getElementEndIndex(index); i++) {
+                    values.add(dictionaryValue(dictionaries, ArrowStreamWriterTests.this.multiple.getId(), items.get(i)));
+                }
+                multiple = values;
+            }
+        }
+
+        private String dictionaryValue(Map<Long, Dictionary> dictionaries, long id, int index) {
+            Dictionary dictionary = dictionaries.get(id);
+            assertNotNull(dictionary, "dictionary " + id);
+            return string((VarCharVector) dictionary.getVector(), index);
+        }
+
+        private static String string(FieldVector vector, int index) {
+            return vector.isNull(index) ? null : new String(((VarCharVector) vector).get(index), StandardCharsets.UTF_8);
+        }
+    }
+}
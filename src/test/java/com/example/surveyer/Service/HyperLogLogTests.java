@@ -0,0 +1,91 @@
+package com.example.surveyer.Service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTests {
+
+    private static final int PRECISION = 12;
+
+    @Test
+    void estimatesWithinThreeStandardErrors() {
+        for (int distinct : new int[]{1_000, 50_000, 500_000}) {
+            HyperLogLog sketch = new HyperLogLog(PRECISION);
+            for (int i = 0; i < distinct; i++) {
+                sketch.add("respondent" + i + "@example.com");
+                // Repeats must not count
+                sketch.add("respondent" + i + "@example.com");
+            }
+
+            assertWithinError(distinct, sketch);
+        }
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 20; i++) {
+            sketch.add("respondent" + i + "@example.com");
+        }
+
+        assertEquals(20, sketch.estimate());
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog first = new HyperLogLog(PRECISION);
+        HyperLogLog second = new HyperLogLog(PRECISION);
+        // 30,000 each, 10,000 shared
+        for (int i = 0; i < 30_000; i++) {
+            first.add("respondent" + i + "@example.com");
+            second.add("respondent" + (i + 20_000) + "@example.com");
+        }
+
+        HyperLogLog union = first.copy();
+        union.merge(second);
+
+        assertWithinError(50_000, union);
+        assertWithinError(30_000, first);
+    }
+
+    @Test
+    void mergeIsIdempotent() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add("respondent" + i + "@example.com");
+        }
+
+        HyperLogLog merged = sketch.copy();
+        merged.merge(sketch);
+
+        assertArrayEquals(sketch.toBytes(), merged.toBytes());
+    }
+
+    @Test
+    void rejectsMergingDifferentPrecisions() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(PRECISION).merge(new HyperLogLog(PRECISION + 1)));
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add("respondent" + i + "@example.com");
+        }
+
+        HyperLogLog read = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.getPrecision(), read.getPrecision());
+        assertEquals(sketch.estimate(), read.estimate());
+    }
+
+    private static void assertWithinError(long expected, HyperLogLog sketch) {
+        double error = Math.abs(sketch.estimate() - expected) / (double) expected;
+        assertTrue(error <= 3 * sketch.relativeStandardError(),
+                "estimate " + sketch.estimate() + " of " + expected + " is off by " + error);
+    }
+}
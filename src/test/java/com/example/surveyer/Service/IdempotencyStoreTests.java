@@ -0,0 +1,104 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.AnswerDTO;
+import com.example.surveyer.DTO.SurveyResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTests {
+
+    private IdempotencyStore store;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore();
+        ReflectionTestUtils.setField(store, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(store, "ttl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(store, "maxSize", 1000L);
+        store.init();
+    }
+
+    @Test
+    void replaysTheStoredResultWithoutRunningTheRequestAgain() {
+        String first = store.execute("survey:1", "key-1", submission("a@example.com"), this::submit);
+        String retry = store.execute("survey:1", "key-1", submission("a@example.com"), this::submit);
+
+        assertEquals("receipt-1", first);
+        assertEquals(first, retry);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void rejectsAKeyReusedWithADifferentBody() {
+        store.execute("survey:1", "key-1", submission("a@example.com"), this::submit);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.execute("survey:1", "key-1", submission("b@example.com"), this::submit));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void keysAreScoped() {
+        store.execute("survey:1", "key-1", submission("a@example.com"), this::submit);
+        String other = store.execute("survey:2", "key-1", submission("a@example.com"), this::submit);
+
+        assertEquals("receipt-2", other);
+    }
+
+    @Test
+    void failedAttemptsCanBeRetried() {
+        assertThrows(IllegalStateException.class, () -> store.execute("survey:1", "key-1", submission("a@example.com"), () -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+
+        assertEquals("receipt-1", store.execute("survey:1", "key-1", submission("a@example.com"), this::submit));
+    }
+
+    @Test
+    void concurrentRetryWaitsForTheFirstAttempt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                store.execute("survey:1", "key-1", submission("a@example.com"), () -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return submit();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> retry = CompletableFuture.supplyAsync(() ->
+                store.execute("survey:1", "key-1", submission("a@example.com"), this::submit));
+        release.countDown();
+
+        assertEquals("receipt-1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("receipt-1", retry.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    private String submit() {
+        return "receipt-" + runs.incrementAndGet();
+    }
+
+    private static SurveyResponseDTO submission(String email) {
+        return new SurveyResponseDTO(null, 1L, email, null, List.of(new AnswerDTO(null, 10L, "Yes", null, null)));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.Enum.UserRole;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JWTServiceTests {
+
+    @Test
+    void verifiesRepeatTokensFromCache() {
+        JWTService jwtService = JwtAuthenticationBenchmark.jwtService();
+        String token = jwtService.generateToken("alice", UserRole.CREATOR);
+
+        JWTService.VerifiedToken verified = jwtService.verifyToken(token).orElseThrow();
+        assertEquals("alice", verified.username());
+        assertEquals("ROLE_CREATOR", verified.authorities().get(0).getAuthority());
+        assertSame(verified, jwtService.verifyToken(token).orElseThrow());
+        char[] tampered = token.toCharArray();
+        tampered[tampered.length - 5] = tampered[tampered.length - 5] == 'A' ? 'B' : 'A';
+        assertFalse(jwtService.verifyToken(new String(tampered)).isPresent());
+        assertFalse(jwtService.verifyToken("not-a-token").isPresent());
+    }
+}
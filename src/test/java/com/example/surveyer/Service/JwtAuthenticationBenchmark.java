@@ -0,0 +1,91 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.Enum.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of authenticating a request's bearer token: the former path, which rebuilt the
+ * key and parsed and verified the token twice, against a single parse with the shared parser and
+ * against a repeat token answered from the verified-token cache. Not part of the test suite; run
+ * with {@code mvn -Pbenchmark test-compile exec:exec}, which prints JMH's own report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtAuthenticationBenchmark {
+
+    static final String SECRET = "c3VydmV5ZXItYmVuY2htYXJrLXNlY3JldC1rZXktb2YtYXQtbGVhc3QtMjU2LWJpdHM=";
+
+    private JWTService jwtService;
+
+    private String token;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getName() + "\\.")
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        jwtService = jwtService();
+        token = jwtService.generateToken("alice", UserRole.CREATOR);
+    }
+
+    @Benchmark
+    public Object twoParsesWithFreshKey() {
+        // What JwtFilter did before: validateToken, then extractAllClaims, each rebuilding the key
+        Claims validated = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build()
+                .parseSignedClaims(token).getPayload();
+        if (validated.getExpiration().before(new Date())) {
+            return null;
+        }
+        Claims claims = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET))).build()
+                .parseSignedClaims(token).getPayload();
+        return claims.get("role", String.class);
+    }
+
+    @Benchmark
+    public Object singleParse() {
+        // What a cache miss costs: one parse with the shared parser
+        return jwtService.extractAllClaims(token).get("role", String.class);
+    }
+
+    @Benchmark
+    public Object cachedLookup() {
+        return jwtService.verifyToken(token);
+    }
+
+    static JWTService jwtService() {
+        JWTService service = new JWTService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(service, "cacheMaxTtl", Duration.ofMinutes(5));
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.surveyer.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LiveCountersTests {
+
+    private static final Long SURVEY = 1L;
+    private static final Long YES = 10L;
+    private static final Long NO = 11L;
+
+    private LiveCounters liveCounters;
+
+    @BeforeEach
+    void setUp() {
+        liveCounters = new LiveCounters();
+        // Write-behind, so recording submissions does not touch the database
+        ReflectionTestUtils.setField(liveCounters, "writeBehind", true);
+        liveCounters.registerOption(YES, SURVEY);
+        liveCounters.registerOption(NO, SURVEY);
+    }
+
+    @Test
+    void resyncReplacesDriftedCountersWithTheRecount() {
+        liveCounters.recordSubmissions(SURVEY, 3, List.of(YES, YES, NO));
+
+        liveCounters.resync(SURVEY, () -> new LiveCounters.Recount(5, Map.of(YES, 4L, NO, 1L)));
+
+        assertEquals(5, liveCounters.getResponseCount(SURVEY));
+        assertEquals(Map.of(YES, 4L, NO, 1L), liveCounters.getSelectionCounts(SURVEY));
+    }
+
+    @Test
+    void submissionsCountedAfterTheRecountAreKept() {
+        liveCounters.recordSubmissions(SURVEY, 1, List.of(YES));
+
+        liveCounters.resync(SURVEY, () -> new LiveCounters.Recount(1, Map.of(YES, 1L)));
+        liveCounters.recordSubmissions(SURVEY, 1, List.of(NO));
+
+        assertEquals(2, liveCounters.getResponseCount(SURVEY));
+        assertEquals(Map.of(YES, 1L, NO, 1L), liveCounters.getSelectionCounts(SURVEY));
+    }
+
+    @Test
+    void optionsMissingFromTheRecountDropToZero() {
+        liveCounters.recordSubmissions(SURVEY, 2, List.of(YES, NO));
+
+        liveCounters.resync(SURVEY, () -> new LiveCounters.Recount(2, Map.of(YES, 2L)));
+
+        assertEquals(Map.of(YES, 2L, NO, 0L), liveCounters.getSelectionCounts(SURVEY));
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.QuestionDTO;
+import com.example.surveyer.DTO.QuestionOptionDTO;
+import com.example.surveyer.Entity.Answer;
+import com.example.surveyer.Entity.AnswerSelectedOption;
+import com.example.surveyer.Entity.Question;
+import com.example.surveyer.Entity.QuestionOption;
+import com.example.surveyer.Entity.RatingTally;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Entity.SurveyResponse;
+import com.example.surveyer.Entity.Users;
+import com.example.surveyer.Enum.QuestionType;
+import com.example.surveyer.Enum.UserRole;
+import com.example.surveyer.Repository.AnswerSelectedOptionRepository;
+import com.example.surveyer.Repository.QuestionOptionRepository;
+import com.example.surveyer.Repository.RatingTallyRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({QuestionService.class, SurveyAggregateLoader.class, SurveySnapshotCache.class,
+        SurveyStatsService.class, SurveyResultsService.class, LiveCounters.class, ResponseBitmapIndex.class,
+        ResponseTimelineService.class, TermFrequencyIndex.class, RespondentSketches.class, RatingTallyService.class})
+class QuestionServiceTests {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private QuestionOptionRepository questionOptionRepository;
+
+    @Autowired
+    private AnswerSelectedOptionRepository answerSelectedOptionRepository;
+
+    @Autowired
+    private RatingTallyRepository ratingTallyRepository;
+
+    private Long questionId;
+
+    private final List<Long> optionIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Users user = new Users();
+        user.setUsername("creator");
+        user.setEmail("creator@example.com");
+        user.setPassword("secret");
+        user.setName("Creator");
+        user.setRole(UserRole.CREATOR);
+        entityManager.persist(user);
+
+        Survey survey = new Survey();
+        survey.setTitle("Survey");
+        survey.setCreatedBy(user);
+        entityManager.persist(survey);
+
+        Question question = new Question();
+        question.setSurvey(survey);
+        question.setQuestionText("Favourite colour?");
+        question.setType(QuestionType.SINGLE_CHOICE);
+        question.setQuestionOrder(1);
+        entityManager.persist(question);
+        questionId = question.getId();
+
+        List<QuestionOption> options = new ArrayList<>();
+        for (String text : List.of("Red", "Green", "Blue")) {
+            QuestionOption option = new QuestionOption();
+            option.setQuestion(question);
+            option.setOptionText(text);
+            entityManager.persist(option);
+            options.add(option);
+            optionIds.add(option.getId());
+        }
+
+        // One response selected "Red"
+        SurveyResponse response = new SurveyResponse();
+        response.setSurvey(survey);
+        response.setRespondentEmail("respondent@example.com");
+        entityManager.persist(response);
+        Answer answer = new Answer();
+        answer.setSurveyResponse(response);
+        answer.setQuestion(question);
+        entityManager.persist(answer);
+        entityManager.persist(new AnswerSelectedOption(answer, options.get(0)));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void keptOptionsAreRenamedInPlaceWithTheirSelections() {
+        questionService.updateQuestion(questionId, update(
+                option(optionIds.get(0), "Crimson"),
+                option(optionIds.get(1), "Green"),
+                option(optionIds.get(2), "Blue"),
+                option(null, "Yellow")), "creator");
+        entityManager.flush();
+        entityManager.clear();
+
+        List<QuestionOption> options = questionOptionRepository.findByQuestionId(questionId);
+        assertEquals(List.of("Crimson", "Green", "Blue", "Yellow"), options.stream().map(QuestionOption::getOptionText).toList());
+        assertEquals(optionIds, options.stream().map(QuestionOption::getId).limit(3).toList());
+        assertEquals(1, answerSelectedOptionRepository.countByOptionId(optionIds.get(0)));
+    }
+
+    @Test
+    void optionsLeftOutAreRemoved() {
+        questionService.updateQuestion(questionId, update(
+                option(optionIds.get(0), "Red"),
+                option(optionIds.get(2), "Blue")), "creator");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(List.of(optionIds.get(0), optionIds.get(2)),
+                questionOptionRepository.findByQuestionId(questionId).stream().map(QuestionOption::getId).toList());
+        assertEquals(1, answerSelectedOptionRepository.countByOptionId(optionIds.get(0)));
+    }
+
+    @Test
+    void selectedOptionsCannotBeRemoved() {
+        assertThrows(RuntimeException.class, () -> questionService.updateQuestion(questionId, update(
+                option(optionIds.get(1), "Green"),
+                option(optionIds.get(2), "Blue")), "creator"));
+    }
+
+    @Test
+    void ratingTalliesAreRebuiltOnlyWhenTheRangeChanges() {
+        Question rating = new Question();
+        rating.setSurvey(entityManager.find(Question.class, questionId).getSurvey());
+        rating.setQuestionText("Score?");
+        rating.setType(QuestionType.RATING);
+        rating.setQuestionOrder(2);
+        rating.setMinValue(1);
+        rating.setMaxValue(5);
+        entityManager.persist(rating);
+        // A tally no answer backs, which a rebuild would drop
+        entityManager.persist(new RatingTally(rating.getId(), 3, 7L));
+        entityManager.flush();
+        entityManager.clear();
+
+        questionService.updateQuestion(rating.getId(), ratingUpdate("Your score?", 5), "creator");
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(List.of(7L), ratingTallyRepository.findByQuestionIdIn(List.of(rating.getId()))
+                .stream().map(RatingTally::getCount).toList());
+
+        questionService.updateQuestion(rating.getId(), ratingUpdate("Your score?", 10), "creator");
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(List.of(), ratingTallyRepository.findByQuestionIdIn(List.of(rating.getId())));
+    }
+
+    private static QuestionDTO ratingUpdate(String text, int maxValue) {
+        QuestionDTO question = new QuestionDTO();
+        question.setQuestionText(text);
+        question.setType(QuestionType.RATING);
+        question.setMinValue(1);
+        question.setMaxValue(maxValue);
+        return question;
+    }
+
+    private static QuestionDTO update(QuestionOptionDTO... options) {
+        QuestionDTO question = new QuestionDTO();
+        question.setQuestionText("Favourite colour?");
+        question.setType(QuestionType.SINGLE_CHOICE);
+        question.setOptions(List.of(options));
+        return question;
+    }
+
+    private static QuestionOptionDTO option(Long id, String text) {
+        QuestionOptionDTO option = new QuestionOptionDTO();
+        option.setId(id);
+        option.setOptionText(text);
+        return option;
+    }
+}
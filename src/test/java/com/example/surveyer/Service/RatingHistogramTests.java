@@ -0,0 +1,86 @@
+package com.example.surveyer.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RatingHistogramTests {
+
+    @Test
+    void quantilesUseTheNearestRank() {
+        RatingHistogram histogram = new RatingHistogram(1, 5);
+        // 1, 2, 2, 3, 3, 3, 4, 4, 4, 5
+        histogram.add(1, 1);
+        histogram.add(2, 2);
+        histogram.add(3, 3);
+        histogram.add(4, 3);
+        histogram.add(5, 1);
+
+        assertEquals(1, histogram.quantile(0));
+        assertEquals(1, histogram.quantile(0.1));
+        assertEquals(3, histogram.quantile(0.5));
+        assertEquals(4, histogram.quantile(0.9));
+        assertEquals(5, histogram.quantile(1));
+        assertEquals(3.1, histogram.mean(), 1e-9);
+        assertEquals(10, histogram.getCount());
+    }
+
+    @Test
+    void addingCountsMergesHistograms() {
+        RatingHistogram merged = new RatingHistogram(1, 5);
+        merged.add(2, 3);
+        merged.add(2, 4);
+        merged.add(5, 1);
+
+        assertEquals(List.of(0L, 7L, 0L, 0L, 1L), merged.getCounts());
+        assertEquals(2, merged.quantile(0.5));
+    }
+
+    @Test
+    void valuesOutsideTheRangeAreIgnored() {
+        RatingHistogram histogram = new RatingHistogram(1, 5);
+        histogram.add(0, 4);
+        histogram.add(7, 4);
+        histogram.add(3, 1);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(3.0, histogram.mean());
+    }
+
+    @Test
+    void npsIsPromotersMinusDetractors() {
+        RatingHistogram histogram = new RatingHistogram(0, 10);
+        histogram.add(10, 3);
+        histogram.add(9, 2);
+        // Passives count in the total only
+        histogram.add(8, 2);
+        histogram.add(7, 1);
+        histogram.add(6, 1);
+        histogram.add(0, 1);
+
+        assertEquals(30.0, histogram.npsScore(), 1e-9);
+    }
+
+    @Test
+    void npsRangesFromMinusToPlusHundred() {
+        RatingHistogram detractors = new RatingHistogram(0, 10);
+        detractors.add(6, 5);
+        RatingHistogram promoters = new RatingHistogram(0, 10);
+        promoters.add(9, 5);
+
+        assertEquals(-100.0, detractors.npsScore());
+        assertEquals(100.0, promoters.npsScore());
+    }
+
+    @Test
+    void emptyHistogramHasNoStatistics() {
+        RatingHistogram histogram = new RatingHistogram(0, 10);
+
+        assertNull(histogram.mean());
+        assertNull(histogram.quantile(0.5));
+        assertNull(histogram.npsScore());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.surveyer.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTests {
+
+    @Test
+    void countsExactlyWhileUnderCapacity() {
+        SpaceSaving summary = new SpaceSaving(10);
+        for (String item : List.of("price", "support", "price", "delivery", "price", "support")) {
+            summary.add(item);
+        }
+
+        assertEquals(List.of(
+                new SpaceSaving.Counter("price", 3, 0),
+                new SpaceSaving.Counter("support", 2, 0)), summary.top(2));
+        assertEquals(6, summary.getTotal());
+    }
+
+    @Test
+    void keepsHeavyHittersWithinTheirErrorBound() {
+        int capacity = 20;
+        SpaceSaving summary = new SpaceSaving(capacity);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            // A few frequent items in a long tail of rare ones
+            String item = random.nextInt(4) == 0 ? "hot" + random.nextInt(5) : "tail" + random.nextInt(5_000);
+            summary.add(item);
+            exact.merge(item, 1L, Long::sum);
+        }
+
+        List<SpaceSaving.Counter> top = summary.top(capacity);
+        long threshold = summary.getTotal() / capacity;
+        exact.forEach((item, count) -> {
+            if (count > threshold) {
+                assertTrue(top.stream().anyMatch(counter -> counter.item().equals(item)), item + " was dropped");
+            }
+        });
+        for (SpaceSaving.Counter counter : top) {
+            long trueCount = exact.get(counter.item());
+            assertTrue(counter.count() >= trueCount, counter + " underestimates " + trueCount);
+            assertTrue(counter.count() - counter.error() <= trueCount, counter + " exceeds its error bound");
+        }
+        assertEquals(5, top.stream().limit(5).filter(counter -> counter.item().startsWith("hot")).count());
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.AnswerDTO;
+import com.example.surveyer.DTO.RatingSummaryDTO;
+import com.example.surveyer.DTO.SurveyResponseDTO;
+import com.example.surveyer.Entity.Answer;
+import com.example.surveyer.Entity.AnswerSelectedOption;
+import com.example.surveyer.Entity.Question;
+import com.example.surveyer.Entity.QuestionOption;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Entity.SurveyResponse;
+import com.example.surveyer.Entity.Users;
+import com.example.surveyer.Enum.QuestionType;
+import com.example.surveyer.Enum.UserRole;
+import com.example.surveyer.Repository.AnswerRepository;
+import com.example.surveyer.Repository.QuestionRepository;
+import com.example.surveyer.Repository.SurveyRepository;
+import com.example.surveyer.Repository.SurveyResponseRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares database round trips and latency of a 40-answer submission between the former
+ * one-lookup-and-insert-per-answer pattern and the batched {@link SurveyResponseService} path,
+ * and checks that 40 rating answers cost a constant number of round trips as well.
+ * Round trips are counted as prepared JDBC statements, so an executed batch counts once. The
+ * latency comparison is tagged {@code benchmark} and only runs with the benchmark profile.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@Import({SurveyResponseService.class, SurveyStatsService.class, RespondentFilter.class, LiveCounters.class,
+        ResponseBitmapIndex.class, ResponseTimelineService.class, TermFrequencyIndex.class,
+        RespondentSketches.class, RatingTallyService.class})
+class SubmissionBenchmarkTests {
+
+    private static final int QUESTIONS = 40;
+    private static final int WARMUP = 5;
+    private static final int SUBMISSIONS = 20;
+    private static final int BENCHMARK_WARMUP = 50;
+    private static final int BENCHMARK_SUBMISSIONS = 300;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SurveyResponseService surveyResponseService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private SurveyResponseRepository surveyResponseRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Autowired
+    private LiveCounters liveCounters;
+
+    @Autowired
+    private RatingTallyService ratingTallyService;
+
+    private Long surveyId;
+
+    private Long ratingSurveyId;
+
+    private final List<Long> questionIds = new ArrayList<>();
+
+    private final List<Question> ratingQuestions = new ArrayList<>();
+
+    private final List<Long> optionIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Users user = new Users();
+        user.setUsername("creator");
+        user.setEmail("creator@example.com");
+        user.setPassword("secret");
+        user.setName("Creator");
+        user.setRole(UserRole.CREATOR);
+        entityManager.persist(user);
+
+        Survey survey = new Survey();
+        survey.setTitle("Benchmark");
+        survey.setCreatedBy(user);
+        entityManager.persist(survey);
+        surveyId = survey.getId();
+
+        for (int q = 0; q < QUESTIONS; q++) {
+            Question question = new Question();
+            question.setSurvey(survey);
+            question.setQuestionText("Question " + q);
+            question.setType(QuestionType.SINGLE_CHOICE);
+            question.setQuestionOrder(q + 1);
+            entityManager.persist(question);
+            questionIds.add(question.getId());
+
+            QuestionOption option = new QuestionOption();
+            option.setQuestion(question);
+            option.setOptionText("Yes");
+            entityManager.persist(option);
+            optionIds.add(option.getId());
+            // What QuestionService does for options it creates
+            liveCounters.registerOption(option.getId(), surveyId);
+        }
+
+        Survey ratingSurvey = new Survey();
+        ratingSurvey.setTitle("Rating benchmark");
+        ratingSurvey.setCreatedBy(user);
+        entityManager.persist(ratingSurvey);
+        ratingSurveyId = ratingSurvey.getId();
+
+        for (int q = 0; q < QUESTIONS; q++) {
+            Question question = new Question();
+            question.setSurvey(ratingSurvey);
+            question.setQuestionText("Rating " + q);
+            question.setType(QuestionType.RATING);
+            question.setMinValue(1);
+            question.setMaxValue(5);
+            question.setQuestionOrder(q + 1);
+            entityManager.persist(question);
+            ratingQuestions.add(question);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void batchedSubmissionUsesConstantRoundTrips() {
+        Result legacy = run("legacy", this::submitLegacy, this::submission, WARMUP, SUBMISSIONS);
+        Result batched = run("batched", surveyResponseService::submitSurveyResponse, this::submission, WARMUP, SUBMISSIONS);
+
+        assertTrue(legacy.roundTrips() >= 2 * QUESTIONS, "legacy path should cost a lookup and an insert per answer");
+        // survey, questions with options, response insert, answer batch, selection batch, stats
+        // update, option tally update, timeline rollup upsert (the duplicate check query only runs
+        // when the respondent filter cannot rule the email out)
+        assertTrue(batched.roundTrips() <= 9, "batched path should not grow with the answer count: " + batched);
+        assertEquals(WARMUP * 2 + SUBMISSIONS * 2, surveyResponseRepository.count());
+    }
+
+    @Test
+    void ratingSubmissionUsesConstantRoundTrips() {
+        Result rating = run("rating", surveyResponseService::submitSurveyResponse, this::ratingSubmission, WARMUP, SUBMISSIONS);
+
+        // survey, questions with options, response insert, answer batch, stats update, timeline
+        // rollup upsert, one rating tally upsert for all 40 question and value pairs, and the
+        // answer id sequence, fetched once per 50 answers
+        assertTrue(rating.roundTrips() <= 8, "rating tallies should not cost a statement per answer: " + rating);
+        Map<Long, RatingSummaryDTO> summaries = ratingTallyService.getSummaries(ratingQuestions);
+        for (Question question : ratingQuestions) {
+            assertEquals(WARMUP + SUBMISSIONS, summaries.get(question.getId()).getAnswerCount());
+        }
+    }
+
+    /**
+     * Latency of both paths; excluded from the default build, run with {@code mvn test -Pbenchmark}.
+     */
+    @Test
+    @Tag("benchmark")
+    void batchedSubmissionLatency(TestReporter reporter) {
+        Result legacy = run("legacy", this::submitLegacy, this::submission, BENCHMARK_WARMUP, BENCHMARK_SUBMISSIONS);
+        Result batched = run("batched", surveyResponseService::submitSurveyResponse, this::submission,
+                BENCHMARK_WARMUP, BENCHMARK_SUBMISSIONS);
+
+        reporter.publishEntry("legacy", legacy.toString());
+        reporter.publishEntry("batched", batched.toString());
+        assertTrue(batched.p50Millis() < legacy.p50Millis(), "batched path should be faster: " + batched + " vs " + legacy);
+    }
+
+    private Result run(String name, Consumer<SurveyResponseDTO> submit, Function<String, SurveyResponseDTO> submission,
+                       int warmup, int submissions) {
+        for (int i = 0; i < warmup; i++) {
+            submitOnce(submission.apply(name + "-warmup-" + i + "@example.com"), submit);
+        }
+
+        long[] nanos = new long[submissions];
+        long statements = 0;
+        for (int i = 0; i < submissions; i++) {
+            statistics().clear();
+            long start = System.nanoTime();
+            submitOnce(submission.apply(name + "-" + i + "@example.com"), submit);
+            nanos[i] = System.nanoTime() - start;
+            statements += statistics().getPrepareStatementCount();
+        }
+
+        Arrays.sort(nanos);
+        return new Result(name, (double) statements / submissions,
+                nanos[submissions / 2] / 1_000_000.0, nanos[(int) (submissions * 0.99)] / 1_000_000.0);
+    }
+
+    private void submitOnce(SurveyResponseDTO submission, Consumer<SurveyResponseDTO> submit) {
+        submit.accept(submission);
+        // What the commit would do, so the inserts are part of the measurement
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private SurveyResponseDTO submission(String email) {
+        List<AnswerDTO> answers = new ArrayList<>();
+        for (int q = 0; q < QUESTIONS; q++) {
+            answers.add(new AnswerDTO(null, questionIds.get(q), null, List.of(optionIds.get(q)), null));
+        }
+        return new SurveyResponseDTO(null, surveyId, email, null, answers);
+    }
+
+    private SurveyResponseDTO ratingSubmission(String email) {
+        List<AnswerDTO> answers = new ArrayList<>();
+        for (int q = 0; q < QUESTIONS; q++) {
+            answers.add(new AnswerDTO(null, ratingQuestions.get(q).getId(), null, null, q % 5 + 1));
+        }
+        return new SurveyResponseDTO(null, ratingSurveyId, email, null, answers);
+    }
+
+    /**
+     * The submission loop as it was written before batching: a question lookup and an
+     * immediately executed insert for every answer (what IDENTITY ids forced).
+     */
+    private void submitLegacy(SurveyResponseDTO responseDTO) {
+        Survey survey = surveyRepository.findActiveById(responseDTO.getSurveyId()).orElseThrow();
+        surveyResponseRepository.existsBySurveyAndRespondentEmail(survey, responseDTO.getRespondentEmail());
+
+        SurveyResponse surveyResponse = new SurveyResponse();
+        surveyResponse.setSurvey(survey);
+        surveyResponse.setRespondentEmail(responseDTO.getRespondentEmail());
+        SurveyResponse savedResponse = surveyResponseRepository.saveAndFlush(surveyResponse);
+
+        for (AnswerDTO answerDTO : responseDTO.getAnswers()) {
+            Question question = questionRepository.findById(answerDTO.getQuestionId()).orElseThrow();
+            Answer answer = new Answer();
+            answer.setSurveyResponse(savedResponse);
+            answer.setQuestion(question);
+            for (Long optionId : answerDTO.getSelectedOptionIds()) {
+                answer.getSelectedOptions().add(new AnswerSelectedOption(answer, entityManager.getReference(QuestionOption.class, optionId)));
+            }
+            answerRepository.saveAndFlush(answer);
+        }
+        answerRepository.findBySurveyResponse(savedResponse);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private record Result(String name, double roundTrips, double p50Millis, double p99Millis) {
+        @Override
+        public String toString() {
+            return String.format("%-8s round trips/submission=%.1f p50=%.3f ms p99=%.3f ms", name, roundTrips, p50Millis, p99Millis);
+        }
+    }
+}
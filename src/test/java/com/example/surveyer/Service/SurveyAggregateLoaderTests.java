@@ -0,0 +1,153 @@
+package com.example.surveyer.Service;
+
+import com.example.surveyer.DTO.CursorPageDTO;
+import com.example.surveyer.DTO.SurveyDTO;
+import com.example.surveyer.Entity.Question;
+import com.example.surveyer.Entity.QuestionOption;
+import com.example.surveyer.Entity.Survey;
+import com.example.surveyer.Entity.Users;
+import com.example.surveyer.Enum.QuestionType;
+import com.example.surveyer.Enum.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({SurveyService.class, QuestionService.class, SurveyAggregateLoader.class, SurveySnapshotCache.class,
+        SurveyStatsService.class, SurveyResultsService.class, LiveCounters.class, ResponseBitmapIndex.class,
+        ResponseTimelineService.class, TermFrequencyIndex.class, RespondentSketches.class, RatingTallyService.class})
+class SurveyAggregateLoaderTests {
+
+    private static final int SURVEYS = 4;
+    private static final int QUESTIONS_PER_SURVEY = 60;
+    private static final int OPTIONS_PER_QUESTION = 4;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SurveyService surveyService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    private final List<Long> surveyIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Users user = new Users();
+        user.setUsername("creator");
+        user.setEmail("creator@example.com");
+        user.setPassword("secret");
+        user.setName("Creator");
+        user.setRole(UserRole.CREATOR);
+        entityManager.persist(user);
+
+        for (int s = 0; s < SURVEYS; s++) {
+            Survey survey = new Survey();
+            survey.setTitle("Survey " + s);
+            survey.setCreatedBy(user);
+            entityManager.persist(survey);
+            surveyIds.add(survey.getId());
+
+            for (int q = 0; q < QUESTIONS_PER_SURVEY; q++) {
+                Question question = new Question();
+                question.setSurvey(survey);
+                question.setQuestionText("Question " + q);
+                question.setType(QuestionType.SINGLE_CHOICE);
+                question.setQuestionOrder(q + 1);
+                entityManager.persist(question);
+
+                for (int o = 0; o < OPTIONS_PER_QUESTION; o++) {
+                    QuestionOption option = new QuestionOption();
+                    option.setQuestion(question);
+                    option.setOptionText("Option " + o);
+                    entityManager.persist(option);
+                }
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+    }
+
+    @Test
+    void getSurveyByIdLoadsTreeInThreeQueries() {
+        SurveyDTO survey = surveyService.getSurveyById(surveyIds.get(0)).orElseThrow();
+
+        assertEquals(QUESTIONS_PER_SURVEY, survey.getQuestions().size());
+        assertEquals(OPTIONS_PER_QUESTION, survey.getQuestions().get(0).getOptions().size());
+        assertEquals(1, survey.getQuestions().get(0).getQuestionOrder());
+        assertEquals(3, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllSurveysQueryCountDoesNotGrowWithSurveys() {
+        List<SurveyDTO> surveys = surveyService.getAllSurveys();
+
+        assertEquals(SURVEYS, surveys.size());
+        surveys.forEach(survey -> assertEquals(QUESTIONS_PER_SURVEY, survey.getQuestions().size()));
+        assertEquals(3, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void getSurveysByUserQueryCountDoesNotGrowWithSurveys() {
+        List<SurveyDTO> surveys = surveyService.getSurveysByUser("creator");
+
+        assertEquals(SURVEYS, surveys.size());
+        assertEquals(4, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void surveyPagesWalkAllSurveysWithConstantQueryCount() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics().clear();
+            CursorPageDTO<SurveyDTO> page = surveyService.getActiveSurveyPageWithQuestions(cursor, 3);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            // summaries, full surveys, questions, options
+            assertEquals(4, statistics().getPrepareStatementCount());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<Long> expected = new ArrayList<>(surveyIds);
+        Collections.reverse(expected);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void getQuestionsBySurveyLoadsOptionsInOneQuery() {
+        questionService.getQuestionsBySurvey(surveyIds.get(0));
+
+        // questions, their (eager) survey, and all options
+        assertEquals(3, statistics().getPrepareStatementCount());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.surveyer.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextTokenizerTests {
+
+    @Test
+    void dropsStopWordsNumbersAndSingleCharacters() {
+        assertEquals(List.of("support", "team", "great"),
+                List.copyOf(TextTokenizer.terms("The support team is GREAT, 10 out of 10 - a great support team!")));
+    }
+
+    @Test
+    void countsEachTermOncePerText() {
+        assertEquals(Set.of("slow", "checkout"), TextTokenizer.terms("Slow, slow checkout. SLOW!"));
+    }
+
+    @Test
+    void possessivesCountAsTheirStemAndContractionsAreDropped() {
+        assertEquals(Set.of("product", "price", "fair"), TextTokenizer.terms("The product’s price isn't fair"));
+    }
+
+    @Test
+    void phrasesOnlyJoinAdjacentKeptWords() {
+        assertEquals(Set.of("customer service", "service rocks"),
+                TextTokenizer.phrases("Customer service rocks, and the delivery was late"));
+        assertEquals(Set.of(), TextTokenizer.phrases("delivery and price"));
+    }
+}
@@ -39,21 +39,12 @@ export default function CreatorDashboard() {
 
   const fetchDashboardData = async () => {
     try {
-      const surveysData = await surveyService.getSurveysByUser();
+      const [surveysData, stats] = await Promise.all([
+        surveyService.getSurveysByUser(),
+        surveyService.getMySurveyStats(),
+      ]);
       setSurveys(surveysData);
-      
-      // Get response counts for all surveys
-      let totalResponses = 0;
-      for (const survey of surveysData) {
-        try {
-          const count = await surveyService.getResponseCount(survey.id);
-          totalResponses += count;
-        } catch (error) {
-          // If error getting response count, continue with other surveys
-          console.warn(`Could not get response count for survey ${survey.id}`);
-        }
-      }
-      setResponseCount(totalResponses);
+      setResponseCount(stats.reduce((acc, stat) => acc + stat.totalResponses, 0));
     } catch (error) {
       console.error('Error fetching dashboard data:', error);
     } finally {
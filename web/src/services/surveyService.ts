@@ -1,5 +1,5 @@
 import api from '@/lib/api';
-import { Survey, CreateSurveyRequest, CreateQuestionRequest, Question, SurveyResponse, SubmitResponseRequest, SurveyToken } from '@/types';
+import { Survey, SurveyStats, CreateSurveyRequest, CreateQuestionRequest, Question, SurveyResponse, SubmitResponseRequest, SurveyToken } from '@/types';
 
 export const surveyService = {
   // Survey CRUD operations
@@ -97,6 +97,16 @@ export const surveyService = {
     }
   },
 
+  async getMySurveyStats(): Promise<SurveyStats[]> {
+    try {
+      const response = await api.get('/api/surveys/stats');
+      return response.data;
+    } catch (error) {
+      console.error('getMySurveyStats error:', error);
+      throw error;
+    }
+  },
+
   // Question operations
   async addQuestionToSurvey(surveyId: number, data: CreateQuestionRequest): Promise<Question> {
     try {
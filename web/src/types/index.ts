@@ -18,6 +18,14 @@ export interface Survey {
   questions: Question[];
 }
 
+export interface SurveyStats {
+  surveyId: number;
+  surveyTitle: string;
+  totalResponses: number;
+  totalQuestions: number;
+  isActive: boolean;
+}
+
 export interface Question {
   id: number;
   questionText: string;